@@ -0,0 +1,44 @@
+package org.joeftiger.jhelp.benchmarks;
+
+import org.joeftiger.jhelp.HelpShell;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the completion of a keystroke in a {@link HelpShell}, for a prefix matching a single option and for a
+ * prefix matching about ten options.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompletionBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int options;
+
+	private HelpShell shell;
+	private String single;
+	private String ten;
+
+	@Setup
+	public void setUp() {
+		shell = new HelpShell(Fixtures.help(options, 2, 80).compile());
+		single = "input " + Fixtures.invoke(options / 2, 0);
+		ten = "input " + Fixtures.invoke(options / 20, 0);
+	}
+
+	@Benchmark
+	public List<String> completeSingle() {
+		return shell.complete(single);
+	}
+
+	@Benchmark
+	public List<String> completeTen() {
+		return shell.complete(ten);
+	}
+}
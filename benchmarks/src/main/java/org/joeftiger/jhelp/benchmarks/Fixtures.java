@@ -0,0 +1,69 @@
+package org.joeftiger.jhelp.benchmarks;
+
+import org.joeftiger.jhelp.HelpOption;
+import org.joeftiger.jhelp.HelpOptionBuilder;
+import org.joeftiger.jhelp.HelpUsage;
+import org.joeftiger.jhelp.JavaHelp;
+
+import java.util.Random;
+
+/**
+ * Deterministic test data shared by the benchmarks.
+ */
+final class Fixtures {
+	private static final String[] WORDS = {
+			"the", "option", "sets", "a", "configuration", "value", "for", "every", "request", "that",
+			"is", "handled", "by", "this", "service", "and", "overrides", "defaults", "of", "environment"
+	};
+
+	private Fixtures() {
+	}
+
+	/**
+	 * @param option option number
+	 * @param alias  alias number
+	 * @return invoke alias of the given option
+	 */
+	static String invoke(int option, int alias) {
+		return alias == 0 ? "--option-" + option : "-" + alias + "o" + option;
+	}
+
+	/**
+	 * @param length approximate length in characters
+	 * @param seed   random seed
+	 * @return description text of words separated by single spaces
+	 */
+	static String description(int length, long seed) {
+		var random = new Random(seed);
+		var sb = new StringBuilder(length + 16);
+		while (sb.length() < length) {
+			if (sb.length() > 0) sb.append(' ');
+			sb.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param options           number of options
+	 * @param aliases           invoke aliases per option
+	 * @param descriptionLength approximate description length per option
+	 * @return help with the given number of options
+	 */
+	static JavaHelp help(int options, int aliases, int descriptionLength) {
+		var help = new JavaHelp().setUsage(new HelpUsage().setProgramName("bench").addTargets("input", "output"));
+
+		var built = new HelpOption[options];
+		for (var i = 0; i < options; i++) {
+			var builder = new HelpOptionBuilder();
+			for (var a = 0; a < aliases; a++) {
+				builder.addInvokes(invoke(i, a));
+			}
+			if (i % 2 == 0) {
+				builder.setParameterType(Integer.class);
+			}
+			built[i] = builder.setDescription(description(descriptionLength, i)).build();
+		}
+
+		return help.addOptions(built);
+	}
+}
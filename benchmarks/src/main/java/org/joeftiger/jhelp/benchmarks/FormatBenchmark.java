@@ -0,0 +1,51 @@
+package org.joeftiger.jhelp.benchmarks;
+
+import org.joeftiger.jhelp.HelpRenderer;
+import org.joeftiger.jhelp.JavaHelp;
+import org.joeftiger.jhelp.JsonRenderer;
+import org.joeftiger.jhelp.MarkdownRenderer;
+import org.joeftiger.jhelp.TroffRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JavaHelp#renderTo(HelpRenderer, Appendable)} per format into a reused sink. Run with {@code -prof gc}
+ * to check that the allocation per rendering stays independent of the output size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatBenchmark {
+
+	@Param({"10", "1000"})
+	public int options;
+
+	@Param({"troff", "markdown", "json"})
+	public String format;
+
+	private JavaHelp help;
+	private HelpRenderer renderer;
+	private final StringBuilder sink = new StringBuilder();
+
+	@Setup
+	public void setUp() {
+		help = Fixtures.help(options, 2, 80);
+		renderer = switch (format) {
+			case "troff" -> new TroffRenderer();
+			case "markdown" -> new MarkdownRenderer();
+			default -> new JsonRenderer();
+		};
+	}
+
+	@Benchmark
+	public int render() throws IOException {
+		sink.setLength(0);
+		help.renderTo(renderer, sink);
+		return sink.length();
+	}
+}
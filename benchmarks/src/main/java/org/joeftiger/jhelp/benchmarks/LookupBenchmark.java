@@ -0,0 +1,55 @@
+package org.joeftiger.jhelp.benchmarks;
+
+import org.joeftiger.jhelp.HelpOption;
+import org.joeftiger.jhelp.JavaHelp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JavaHelp#getOptionByInvoke(String)} and {@link JavaHelp#hasOptionInvoke(String)} for growing option
+ * and alias counts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	public int options;
+
+	@Param({"1", "4"})
+	public int aliases;
+
+	private JavaHelp help;
+	private String[] hits;
+	private String[] misses;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		help = Fixtures.help(options, aliases, 0);
+
+		var random = new Random(42);
+		hits = new String[1024];
+		misses = new String[1024];
+		for (var i = 0; i < hits.length; i++) {
+			hits[i] = Fixtures.invoke(random.nextInt(options), random.nextInt(aliases));
+			misses[i] = Fixtures.invoke(options + random.nextInt(options), 0);
+		}
+	}
+
+	@Benchmark
+	public HelpOption getOptionByInvoke() {
+		return help.getOptionByInvoke(hits[next++ & 1023]);
+	}
+
+	@Benchmark
+	public boolean hasOptionInvokeMiss() {
+		return help.hasOptionInvoke(misses[next++ & 1023]);
+	}
+}
@@ -0,0 +1,63 @@
+package org.joeftiger.jhelp.benchmarks;
+
+import org.joeftiger.jhelp.StringUtil;
+
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Soak run of the numeric validators of {@link StringUtil}: compares them to the JDK parsers on random strings of
+ * number characters and on random numbers. The unit tests run a few thousand seeded iterations, this runs as many as
+ * given:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.joeftiger.jhelp.benchmarks.NumberSoak [iterations] [seed]
+ * </pre>
+ * Exits with status 1 on the first mismatch.
+ */
+public final class NumberSoak {
+	private static final String ALPHABET = "0123456789+-.eEpPxXfFdDaAbBNIntiy \t\u0661";
+
+	private NumberSoak() {
+	}
+
+	public static void main(String[] args) {
+		var iterations = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+		var seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+		var random = new Random(seed);
+
+		for (var n = 0L; n < iterations; n++) {
+			var chars = new char[random.nextInt(12)];
+			for (var i = 0; i < chars.length; i++) {
+				chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+			}
+			check(new String(chars), seed);
+			check(String.valueOf(random.nextLong() >> random.nextInt(64)), seed);
+			check(String.valueOf(Double.longBitsToDouble(random.nextLong())), seed);
+		}
+		System.out.println(iterations + " iterations with seed " + seed + " passed");
+	}
+
+	private static void check(String s, long seed) {
+		check(StringUtil::isByte, Byte::parseByte, s, seed);
+		check(StringUtil::isShort, Short::parseShort, s, seed);
+		check(StringUtil::isInteger, Integer::parseInt, s, seed);
+		check(StringUtil::isLong, Long::parseLong, s, seed);
+		check(StringUtil::isFloat, Float::parseFloat, s, seed);
+		check(StringUtil::isDouble, Double::parseDouble, s, seed);
+	}
+
+	private static void check(Predicate<String> validator, Consumer<String> parser, String s, long seed) {
+		boolean parses;
+		try {
+			parser.accept(s);
+			parses = true;
+		} catch (NumberFormatException e) {
+			parses = false;
+		}
+		if (parses != validator.test(s)) {
+			System.err.println("Mismatch for \"" + s + "\" (seed " + seed + ")");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package org.joeftiger.jhelp.benchmarks;
+
+import org.joeftiger.jhelp.JavaHelp;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JavaHelp#toString()} and {@link JavaHelp#renderTo(Appendable)}, both from scratch (after a layout
+ * change) and from the cached rendering.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	public int options;
+
+	@Param({"0", "80", "1000"})
+	public int descriptionLength;
+
+	@Param({"false", "true"})
+	public boolean sorted;
+
+	@Param({"false", "true"})
+	public boolean parallel;
+
+	@Param({"256"})
+	public int parallelThreshold;
+
+	private JavaHelp help;
+	private int indent;
+	private final StringBuilder sink = new StringBuilder();
+
+	@Setup
+	public void setUp() {
+		help = Fixtures.help(options, 2, descriptionLength).sortOptions(sorted).renderInParallel(parallel).setParallelThreshold(parallelThreshold);
+	}
+
+	@Benchmark
+	public String toStringUncached() {
+		help.setOptionIndent(2 + (indent++ & 1));
+		return help.toString();
+	}
+
+	@Benchmark
+	public String toStringCached() {
+		return help.toString();
+	}
+
+	@Benchmark
+	public int renderToUncached() throws IOException {
+		help.setOptionIndent(2 + (indent++ & 1));
+		sink.setLength(0);
+		help.renderTo(sink);
+		return sink.length();
+	}
+}
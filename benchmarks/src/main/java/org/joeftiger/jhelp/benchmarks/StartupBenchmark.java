@@ -0,0 +1,61 @@
+package org.joeftiger.jhelp.benchmarks;
+
+import org.joeftiger.jhelp.HelpCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways a short-lived process can print its help: building the options and rendering them, or loading
+ * an exported {@link HelpCatalog}. Each invocation starts from nothing, like a fresh process after class loading.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+	@Param({"10", "100", "1000"})
+	public int options;
+
+	@Param({"80", "1000"})
+	public int descriptionLength;
+
+	private Path catalog;
+
+	@Setup
+	public void setUp() throws IOException {
+		catalog = Files.createTempFile("jhelp", ".catalog");
+		HelpCatalog.write(Fixtures.help(options, 2, descriptionLength).compile(), catalog);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(catalog);
+	}
+
+	@Benchmark
+	public String buildAndRender() {
+		return Fixtures.help(options, 2, descriptionLength).toString();
+	}
+
+	@Benchmark
+	public String loadCatalog() throws IOException {
+		return HelpCatalog.load(catalog).toString();
+	}
+
+	@Benchmark
+	public int buildAndLookup() {
+		return Fixtures.help(options, 2, descriptionLength).getOptionByInvoke(Fixtures.invoke(options - 1, 1)).hashCode();
+	}
+
+	@Benchmark
+	public int loadCatalogAndLookup() throws IOException {
+		return HelpCatalog.load(catalog).getOptionIndex(Fixtures.invoke(options - 1, 1));
+	}
+}
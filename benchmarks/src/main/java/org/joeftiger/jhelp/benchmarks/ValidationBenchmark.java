@@ -0,0 +1,56 @@
+package org.joeftiger.jhelp.benchmarks;
+
+import org.joeftiger.jhelp.HelpOption;
+import org.joeftiger.jhelp.HelpOptionBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link HelpOption#matchesParameter(String)} (backed by {@code OptionParameter.matches}) for valid and
+ * invalid numeric inputs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+	@Param({"Byte", "Integer", "Long", "Double"})
+	public String type;
+
+	@Param({"true", "false"})
+	public boolean valid;
+
+	private HelpOption option;
+	private String[] inputs;
+
+	@Setup
+	public void setUp() throws ClassNotFoundException {
+		option = new HelpOptionBuilder()
+				.addInvokes("-v")
+				.setParameterType(Class.forName("java.lang." + type))
+				.build();
+
+		var random = new Random(42);
+		inputs = new String[256];
+		for (var i = 0; i < inputs.length; i++) {
+			var number = type.equals("Double")
+					? String.valueOf(random.nextDouble() * 1e6)
+					: String.valueOf(random.nextInt(100));
+			inputs[i] = valid ? number : number + "x";
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(256)
+	public void matchesParameter(Blackhole bh) {
+		for (var input : inputs) {
+			bh.consume(option.matchesParameter(input));
+		}
+	}
+}
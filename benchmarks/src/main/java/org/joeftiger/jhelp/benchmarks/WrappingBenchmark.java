@@ -0,0 +1,50 @@
+package org.joeftiger.jhelp.benchmarks;
+
+import org.joeftiger.jhelp.StringUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures description wrapping with {@link StringUtil} for growing description lengths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WrappingBenchmark {
+
+	@Param({"80", "1000", "10000"})
+	public int length;
+
+	@Param({"56"})
+	public int limit;
+
+	private String description;
+	private final StringBuilder sink = new StringBuilder();
+
+	@Setup
+	public void setUp() {
+		description = Fixtures.description(length, 42);
+	}
+
+	@Benchmark
+	public String[] splitPreservingWords() {
+		return StringUtil.splitPreservingWords(description, limit);
+	}
+
+	@Benchmark
+	public int[] wrapPreservingWords() {
+		return StringUtil.wrapPreservingWords(description, limit);
+	}
+
+	@Benchmark
+	public int appendPreservingWords() throws IOException {
+		sink.setLength(0);
+		StringUtil.appendPreservingWords(sink, description, limit, 24);
+		return sink.length();
+	}
+}
@@ -0,0 +1,200 @@
+package org.joeftiger.jhelp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads the arguments of a response file ({@code @file}) with the syntax of the {@code java} launcher:
+ * <ul>
+ *     <li>arguments are separated by whitespace</li>
+ *     <li>a {@code '#'} at the start of an argument comments out the rest of the line</li>
+ *     <li>single or double quotes group whitespace into an argument; {@code ""} is an empty argument</li>
+ *     <li>within quotes, a backslash escapes the next character ({@code \n}, {@code \t}, {@code \r} and {@code \f} as
+ *     usual) and a backslash at the end of a line continues the argument on the next line, without its leading
+ *     whitespace</li>
+ * </ul>
+ * Files are decoded as UTF-8 in chunks as they are tokenized; large files are memory-mapped window by window instead of
+ * being read into memory as a whole.
+ */
+final class ArgsFile {
+	/** files up to this size are read instead of mapped */
+	static final int MAP_THRESHOLD = 16 * 1024;
+	/** maximum size of a mapped window */
+	static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+	private static final int CHUNK = 8 * 1024;
+
+	private final Consumer<String> tokens;
+	private final StringBuilder token = new StringBuilder();
+	private boolean inToken;
+	private char quote;
+	private boolean escape;
+	private boolean continuation;
+	private boolean comment;
+
+	private ArgsFile(Consumer<String> tokens) {
+		this.tokens = tokens;
+	}
+
+	/**
+	 * Reads the arguments of the given file.
+	 *
+	 * @param file   response file
+	 * @param tokens receives every argument in order
+	 * @throws IOException              if the file cannot be read or is not valid UTF-8
+	 * @throws IllegalArgumentException if a quote is not closed
+	 */
+	static void read(Path file, Consumer<String> tokens) throws IOException, IllegalArgumentException {
+		read(file, MAP_WINDOW, tokens);
+	}
+
+	/**
+	 * Reads the arguments of the given file, mapping windows of at most the given size.
+	 *
+	 * @param file   response file
+	 * @param window maximum size of a mapped window (at least 4 bytes)
+	 * @param tokens receives every argument in order
+	 * @throws IOException              if the file cannot be read or is not valid UTF-8
+	 * @throws IllegalArgumentException if a quote is not closed
+	 */
+	static void read(Path file, long window, Consumer<String> tokens) throws IOException, IllegalArgumentException {
+		var tokenizer = new ArgsFile(tokens);
+		var decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		var chars = CharBuffer.allocate(CHUNK);
+
+		var size = Files.size(file);
+		if (size <= MAP_THRESHOLD) {
+			tokenizer.decode(decoder, ByteBuffer.wrap(Files.readAllBytes(file)), chars, true);
+		} else {
+			try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				var position = 0L;
+				while (position < size) {
+					var length = Math.min(window, size - position);
+					var bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+					tokenizer.decode(decoder, bytes, chars, position + length == size);
+					// bytes of a character split by the window end are mapped again with the next window
+					position += bytes.position();
+				}
+			}
+		}
+		tokenizer.flush(decoder, chars);
+		tokenizer.finish(file);
+	}
+
+	/**
+	 * Reads the arguments of the given text.
+	 *
+	 * @param text   response file content
+	 * @param tokens receives every argument in order
+	 * @throws IllegalArgumentException if a quote is not closed
+	 */
+	static void read(CharSequence text, Consumer<String> tokens) throws IllegalArgumentException {
+		var tokenizer = new ArgsFile(tokens);
+		for (var i = 0; i < text.length(); i++) {
+			tokenizer.accept(text.charAt(i));
+		}
+		tokenizer.finish(null);
+	}
+
+	private void decode(CharsetDecoder decoder, ByteBuffer bytes, CharBuffer chars, boolean endOfInput) throws IOException {
+		while (true) {
+			var result = decoder.decode(bytes, chars, endOfInput);
+			if (result.isError()) {
+				result.throwException();
+			}
+			drain(chars);
+			if (result.isUnderflow()) return;
+		}
+	}
+
+	private void flush(CharsetDecoder decoder, CharBuffer chars) throws IOException {
+		CoderResult result;
+		do {
+			result = decoder.flush(chars);
+			drain(chars);
+		} while (result.isOverflow());
+	}
+
+	private void drain(CharBuffer chars) {
+		chars.flip();
+		while (chars.hasRemaining()) {
+			accept(chars.get());
+		}
+		chars.clear();
+	}
+
+	private void accept(char c) {
+		if (comment) {
+			if (c == '\n' || c == '\r') comment = false;
+			return;
+		}
+
+		if (quote != 0) {
+			if (continuation) {
+				if (Character.isWhitespace(c)) return;
+				continuation = false;
+			}
+			if (escape) {
+				escape = false;
+				switch (c) {
+					case 'n' -> token.append('\n');
+					case 't' -> token.append('\t');
+					case 'r' -> token.append('\r');
+					case 'f' -> token.append('\f');
+					case '\n', '\r' -> continuation = true;
+					default -> token.append(c);
+				}
+			} else if (c == '\\') {
+				escape = true;
+			} else if (c == quote) {
+				quote = 0;
+			} else {
+				token.append(c);
+			}
+			return;
+		}
+
+		if (Character.isWhitespace(c)) {
+			if (inToken) emit();
+			return;
+		}
+		if (!inToken && c == '#') {
+			comment = true;
+			return;
+		}
+
+		inToken = true;
+		if (c == '"' || c == '\'') {
+			quote = c;
+		} else {
+			token.append(c);
+		}
+	}
+
+	private void finish(Path source) {
+		if (quote != 0) {
+			throw new IllegalArgumentException(source == null
+					? "Unterminated quote"
+					: "Unterminated quote in argument file " + source);
+		}
+		if (inToken) emit();
+	}
+
+	private void emit() {
+		tokens.accept(token.toString());
+		token.setLength(0);
+		inToken = false;
+	}
+}
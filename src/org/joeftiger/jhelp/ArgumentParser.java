@@ -0,0 +1,419 @@
+package org.joeftiger.jhelp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Single pass command line parser behind {@link JavaHelp#parse(String...)}. Invokes are resolved through the invoke
+ * index, parameters are validated with {@link HelpOption#matchesParameter(String)} and converted once unless a
+ * primitive callback parses them itself, and every other input is bound to the next {@link HelpTarget}. A {@code "--"} input ends the options; everything after it is bound to
+ * targets. Unambiguous invoke prefixes are accepted for inputs starting with {@code '-'} if enabled. If response files
+ * are enabled, an {@code @file} input is replaced by the arguments read from the file (see {@link ArgsFile}) and an
+ * {@code @@} prefix escapes a literal {@code '@'}. Combined options ({@code -xvf}, {@code -n5}, {@code --count=5}) are
+ * split by offsets if enabled. An input naming a subcommand before any target is bound hands the remaining, already
+ * expanded inputs to the parser of that command, which is built and compiled on first use.
+ * <p>
+ * Inputs are parsed one at a time by {@link #accept(String)}, with an option taking a parameter waiting for the next
+ * input, so the arguments of a response file are parsed as they are read instead of being collected first.
+ * <p>
+ * Instead of throwing, a failed parse returns {@code null} and leaves a message in {@link #getError()}. The scratch
+ * arrays collecting matches are kept and grown across parses (and cleared after each one), so an instance is cheap to
+ * reuse but must not be shared between threads.
+ */
+class ArgumentParser {
+	private final Map<String, HelpOption> invokeIndex;
+	private final InvokeTrie invokeTrie;
+	private final HelpTarget[] targets;
+	private final Map<String, HelpCommand> commands;
+	private final boolean abbreviations;
+	private final boolean responseFiles;
+	private final boolean combinedOptions;
+	private final HelpListener defaultListener;
+
+	/** listener of the current parse: the default one or that of the enclosing parse of a subcommand */
+	private HelpListener listener;
+	private String error;
+	private int optionCount;
+	private int targetCount;
+	private boolean optionsEnded;
+	/** option waiting for its parameter in the next input, {@code null} if none */
+	private HelpOption pendingOption;
+	/** input of {@link #pendingOption} */
+	private String pendingArg;
+	/** invoke of {@link #pendingOption} within the cluster {@link #pendingArg}, {@code 0} if not in a cluster */
+	private char pendingShort;
+	/** name of the subcommand the remaining inputs are handed to, {@code null} if none */
+	private String commandName;
+	private CompiledHelp commandHelp;
+	private ArgumentParser commandParser;
+
+	private HelpOption[] options = new HelpOption[0];
+	private String[] optionValues = new String[0];
+	private Object[] parsedValues = new Object[0];
+	private final String[] targetValues;
+
+	/**
+	 * @param invokeIndex     invoke aliases to their option
+	 * @param invokeTrie      trie over the same aliases
+	 * @param targets         targets to bind inputs to, in order
+	 * @param commands        subcommands by name
+	 * @param abbreviations   whether unambiguous invoke prefixes are accepted
+	 * @param responseFiles   whether {@code @file} inputs are expanded
+	 * @param combinedOptions whether {@code -xvf} clusters and {@code --invoke=value} inputs are accepted
+	 * @param listener        listener of lookups and validations, passed on to the results. may be {@code null}
+	 */
+	ArgumentParser(Map<String, HelpOption> invokeIndex, InvokeTrie invokeTrie, HelpTarget[] targets, Map<String, HelpCommand> commands, boolean abbreviations, boolean responseFiles, boolean combinedOptions, HelpListener listener) {
+		this.invokeIndex = invokeIndex;
+		this.invokeTrie = invokeTrie;
+		this.targets = targets;
+		this.commands = commands;
+		this.abbreviations = abbreviations;
+		this.responseFiles = responseFiles;
+		this.combinedOptions = combinedOptions;
+		this.defaultListener = listener;
+		this.targetValues = new String[targets.length];
+	}
+
+	/**
+	 * Parses the given arguments.
+	 *
+	 * @param args command line arguments
+	 * @return parse result or {@code null} if the arguments are invalid
+	 * @see #getError()
+	 */
+	ParseResult parse(String[] args) {
+		begin(null);
+		try {
+			if (responseFiles) {
+				expand(args);
+			} else {
+				for (var i = 0; i < args.length && error == null; i++) {
+					accept(args[i]);
+				}
+			}
+			return finish();
+		} finally {
+			clear();
+		}
+	}
+
+	/**
+	 * Starts a parse whose inputs are then passed to {@link #accept(String)} and ended by {@link #finish()}. The inputs
+	 * of a subcommand are passed on by the enclosing parse, which already expanded them.
+	 *
+	 * @param listener listener of the enclosing parse, replaces the default one if not {@code null}
+	 */
+	private void begin(HelpListener listener) {
+		this.listener = listener != null ? listener : defaultListener;
+		error = null;
+		optionCount = 0;
+		targetCount = 0;
+		optionsEnded = false;
+	}
+
+	/**
+	 * Parses the next input: the parameter of the previous option, an option invoke, a subcommand or a target. Inputs
+	 * after a failed one are ignored.
+	 *
+	 * @param arg input
+	 */
+	private void accept(String arg) {
+		if (error != null) return;
+
+		if (commandParser != null) {
+			commandParser.accept(arg);
+			if (commandParser.error != null) {
+				error = commandName + ": " + commandParser.error;
+			}
+			return;
+		}
+
+		if (pendingOption != null) {
+			var option = pendingOption;
+			pendingOption = null;
+			addOption(option, pendingArg, arg);
+			return;
+		}
+
+		if (!optionsEnded) {
+			if ("--".equals(arg)) {
+				optionsEnded = true;
+				return;
+			}
+
+			var lookupStart = listener == null ? 0 : System.nanoTime();
+			var option = invokeIndex.get(arg);
+			if (option == null && abbreviations && isOptionLike(arg)) {
+				option = invokeTrie.getByPrefix(arg, 0, arg.length());
+			}
+			if (listener != null && (option != null || isOptionLike(arg))) {
+				listener.onLookup(arg, option, System.nanoTime() - lookupStart);
+			}
+			if (option != null) {
+				if (option.hasParameter()) {
+					await(option, arg, (char) 0);
+				} else {
+					addOption(option, arg, null);
+				}
+				return;
+			}
+
+			if (combinedOptions && isOptionLike(arg) && parseCombined(arg)) return;
+
+			if (targetCount == 0 && !commands.isEmpty()) {
+				var subcommand = commands.get(arg);
+				if (subcommand != null) {
+					beginCommand(subcommand);
+					return;
+				}
+			}
+		}
+
+		if (targetCount == targets.length) {
+			error = !optionsEnded && isOptionLike(arg)
+					? invokeTrie.describeUnknown(arg)
+					: "Unexpected argument: " + arg;
+			return;
+		}
+		targetValues[targetCount++] = arg;
+	}
+
+	/**
+	 * Ends the parse after the last input.
+	 *
+	 * @return parse result or {@code null} if the inputs are invalid
+	 */
+	private ParseResult finish() {
+		if (error != null) return null;
+
+		if (commandParser != null) {
+			var commandResult = commandParser.finish();
+			if (commandResult == null) {
+				error = commandName + ": " + commandParser.error;
+				return null;
+			}
+			return result(0, commandName, commandResult);
+		}
+		if (pendingOption != null) {
+			error = pendingShort == 0
+					? "Missing parameter for option " + pendingArg
+					: "Missing parameter for option -" + pendingShort + " in " + pendingArg;
+			return null;
+		}
+		return result(targetCount, null, null);
+	}
+
+	private ParseResult result(int targetCount, String command, ParseResult commandResult) {
+		return new ParseResult(
+				Arrays.copyOf(options, optionCount),
+				Arrays.copyOf(optionValues, optionCount),
+				Arrays.copyOf(parsedValues, optionCount),
+				Arrays.copyOf(targets, targetCount),
+				Arrays.copyOf(targetValues, targetCount),
+				command,
+				commandResult,
+				listener);
+	}
+
+	/**
+	 * Hands the remaining inputs to the parser of the compiled subcommand, reporting to the listener of this parse. A
+	 * subcommand that cannot be built fails the parse.
+	 *
+	 * @param command subcommand
+	 */
+	private void beginCommand(HelpCommand command) {
+		try {
+			commandHelp = command.compile();
+		} catch (RuntimeException e) {
+			error = command.getName() + ": Cannot build command: " + e.getMessage();
+			return;
+		}
+
+		commandName = command.getName();
+		commandParser = commandHelp.getParser();
+		commandParser.begin(listener);
+	}
+
+	/**
+	 * Lets the given option take the next input as its parameter.
+	 *
+	 * @param option option with parameter
+	 * @param arg    input of the option (for error messages)
+	 * @param c      invoke of the option within a cluster, {@code 0} if not in a cluster
+	 */
+	private void await(HelpOption option, String arg, char c) {
+		pendingOption = option;
+		pendingArg = arg;
+		pendingShort = c;
+	}
+
+	/**
+	 * Parses a {@code --invoke=value} input or a cluster of single character invokes like {@code -xvf}, where the first
+	 * option taking a parameter takes the rest of the cluster ({@code -n5}) or else the next input. Invokes are looked
+	 * up by their offsets in the input, without creating Strings. An input that is not entirely made of known invokes
+	 * is left to the targets.
+	 *
+	 * @param arg input to parse
+	 * @return whether the input is a combined one (possibly invalid, see {@link #error})
+	 */
+	private boolean parseCombined(String arg) {
+		var lookupStart = listener == null ? 0 : System.nanoTime();
+
+		if (arg.startsWith("--")) {
+			var equals = arg.indexOf('=');
+			if (equals < 3) return false;
+
+			var option = invokeTrie.get(arg, 0, equals);
+			if (option == null && abbreviations) {
+				option = invokeTrie.getByPrefix(arg, 0, equals);
+			}
+			if (option == null) return false;
+			if (listener != null) {
+				listener.onLookup(arg, option, System.nanoTime() - lookupStart);
+			}
+
+			if (!option.hasParameter()) {
+				error = "Option " + arg.substring(0, equals) + " does not take a parameter";
+				return true;
+			}
+			addOption(option, arg, arg.substring(equals + 1));
+			return true;
+		}
+
+		// check the whole cluster first, so that e.g. negative numbers are bound to targets
+		for (var j = 1; j < arg.length(); j++) {
+			var option = invokeTrie.getShort(arg.charAt(j));
+			if (option == null) return false;
+			if (option.hasParameter()) break;
+		}
+		if (listener != null) {
+			listener.onLookup(arg, invokeTrie.getShort(arg.charAt(1)), System.nanoTime() - lookupStart);
+		}
+
+		for (var j = 1; j < arg.length(); j++) {
+			var option = invokeTrie.getShort(arg.charAt(j));
+			if (!option.hasParameter()) {
+				addOption(option, arg, null);
+				continue;
+			}
+
+			if (j + 1 < arg.length()) {
+				addOption(option, arg, arg.substring(j + 1));
+			} else {
+				await(option, arg, arg.charAt(j));
+			}
+			return true;
+		}
+		return true;
+	}
+
+	/**
+	 * Validates the parameter of a matched option, converts it unless a primitive callback takes it and adds the option.
+	 *
+	 * @param option matched option
+	 * @param arg    input of the option (for error messages)
+	 * @param value  parameter or {@code null} if the option has none
+	 */
+	private void addOption(HelpOption option, String arg, String value) {
+		Object parsed = null;
+		if (value != null) {
+			var validationStart = listener == null ? 0 : System.nanoTime();
+			var valid = option.matchesParameter(value);
+			if (valid && !option.hasPrimitiveCallback()) {
+				parsed = option.convertParameter(value);
+			}
+			if (listener != null) {
+				listener.onValidation(option, value, valid, System.nanoTime() - validationStart);
+			}
+			if (!valid) {
+				error = "Invalid parameter for option " + arg + ": " + value;
+				return;
+			}
+		}
+
+		if (optionCount == options.length) {
+			var capacity = Math.max(4, 2 * optionCount);
+			options = Arrays.copyOf(options, capacity);
+			optionValues = Arrays.copyOf(optionValues, capacity);
+			parsedValues = Arrays.copyOf(parsedValues, capacity);
+		}
+		options[optionCount] = option;
+		optionValues[optionCount] = value;
+		parsedValues[optionCount++] = parsed;
+	}
+
+	/**
+	 * Parses the given arguments, replacing every {@code @file} input by the arguments of the file as they are read.
+	 * Inputs after the end of the options are not expanded, whether the {@code "--"} was given directly or read from a
+	 * file.
+	 *
+	 * @param args command line arguments
+	 */
+	private void expand(String[] args) {
+		for (var i = 0; i < args.length && error == null; i++) {
+			var arg = args[i];
+			if (!isResponseFile(arg) || hasOptionsEnded()) {
+				accept(arg);
+			} else if (arg.startsWith("@@")) {
+				accept(arg.substring(1));
+			} else {
+				try {
+					ArgsFile.read(Path.of(arg.substring(1)), this::accept);
+				} catch (IOException | IllegalArgumentException e) {
+					error = "Cannot read argument file " + arg.substring(1) + ": " + e.getMessage();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return whether a {@code "--"} ended the options of this parse or of the subcommand the inputs are handed to
+	 */
+	private boolean hasOptionsEnded() {
+		return commandParser != null ? commandParser.optionsEnded : optionsEnded;
+	}
+
+	private static boolean isResponseFile(String arg) {
+		return arg.length() > 1 && arg.charAt(0) == '@';
+	}
+
+	/**
+	 * @param arg argument
+	 * @return whether the argument looks like an option invoke
+	 */
+	private static boolean isOptionLike(String arg) {
+		return arg.length() > 1 && arg.charAt(0) == '-';
+	}
+
+	/**
+	 * Drops the references to the inputs and options of the last parse from the scratch arrays, so an idle parser does
+	 * not keep them alive, and returns the parser of a subcommand to its help.
+	 */
+	private void clear() {
+		Arrays.fill(options, 0, optionCount, null);
+		Arrays.fill(optionValues, 0, optionCount, null);
+		Arrays.fill(parsedValues, 0, optionCount, null);
+		Arrays.fill(targetValues, 0, targetCount, null);
+		optionCount = 0;
+		targetCount = 0;
+		listener = null;
+		pendingOption = null;
+		pendingArg = null;
+		if (commandParser != null) {
+			commandParser.clear();
+			commandHelp.releaseParser(commandParser);
+		}
+		commandName = null;
+		commandHelp = null;
+		commandParser = null;
+	}
+
+	/**
+	 * @return error message of the last failed parse, {@code null} if it succeeded
+	 */
+	String getError() {
+		return error;
+	}
+}
@@ -0,0 +1,372 @@
+package org.joeftiger.jhelp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * An immutable snapshot of a {@link JavaHelp}, created by {@link JavaHelp#compile()}. All state is final and never
+ * modified after construction (the printable representation is rendered on first use), so a CompiledHelp can be
+ * shared between threads for concurrent lookups, parses and renderings without locking. Every {@link
+ * #parse(String...)} binds targets with its own cursor; the parser scratch state is pooled by the snapshot and cleared
+ * after every parse.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public final class CompiledHelp {
+	private final List<HelpOption> options;
+	private final Map<String, HelpOption> invokeIndex;
+	private final InvokeTrie invokeTrie = new InvokeTrie();
+	private final HelpTarget[] targets;
+	private final Map<String, HelpCommand> commands;
+	private final boolean abbreviations;
+	private final boolean responseFiles;
+	private final boolean combinedOptions;
+	private final HelpListener listener;
+	/** idle parsers, taken by a parse and returned after it */
+	private final Queue<ArgumentParser> parsers = new ConcurrentLinkedQueue<>();
+
+	private final String usage;
+	private final List<HelpCommand> commandList;
+	private final boolean sortAlphabetically;
+	private final int indent;
+	private final int descriptionIndent;
+	private final int paragraphLimit;
+	/** printable representation of every option, {@code null} until rendered */
+	private volatile Map<HelpOption, String> blocks;
+	private volatile String rendered;
+
+	/**
+	 * Creates a new snapshot. The collections are copied.
+	 *
+	 * @param options            options
+	 * @param invokeIndex        invoke aliases to their option
+	 * @param targets            usage targets
+	 * @param commands           subcommands by name, in order of registration (shared, built on first use)
+	 * @param abbreviations      whether parsing accepts invoke prefixes
+	 * @param responseFiles      whether parsing expands {@code @file} inputs
+	 * @param combinedOptions    whether parsing accepts {@code -xvf} clusters and {@code --invoke=value} inputs
+	 * @param listener           listener of lookups, validations, callbacks and renderings. may be {@code null}
+	 * @param usage              printable representation of the usage
+	 * @param sortAlphabetically whether the options are rendered in alphabetical order
+	 * @param indent             indent of options
+	 * @param descriptionIndent  indent of option descriptions
+	 * @param paragraphLimit     limit of description paragraphs
+	 * @param blocks             printable representation of every option, in order of the options. {@code null} to
+	 *                           render on first use
+	 * @param rendered           printable representation. {@code null} to render on first use
+	 */
+	CompiledHelp(List<HelpOption> options, Map<String, HelpOption> invokeIndex, HelpTarget[] targets, Map<String, HelpCommand> commands, boolean abbreviations, boolean responseFiles, boolean combinedOptions, HelpListener listener,
+	             String usage, boolean sortAlphabetically, int indent, int descriptionIndent, int paragraphLimit, List<String> blocks, String rendered) {
+		this.options = List.copyOf(options);
+		this.invokeIndex = Map.copyOf(invokeIndex);
+		this.invokeIndex.forEach(invokeTrie::add);
+		this.targets = targets.clone();
+		this.commands = Map.copyOf(commands);
+		this.abbreviations = abbreviations;
+		this.responseFiles = responseFiles;
+		this.combinedOptions = combinedOptions;
+		this.listener = listener;
+
+		this.usage = usage;
+		this.commandList = List.copyOf(commands.values());
+		this.sortAlphabetically = sortAlphabetically;
+		this.indent = indent;
+		this.descriptionIndent = descriptionIndent;
+		this.paragraphLimit = paragraphLimit;
+		if (blocks != null && rendered != null) {
+			this.blocks = indexBlocks(blocks);
+			this.rendered = rendered;
+		}
+	}
+
+	/**
+	 * Takes an idle parser, or creates a new one if all are in use (by other threads or by an enclosing parse of a
+	 * subcommand nesting itself). The parsers belong to this snapshot, so no thread keeps them once it is unreachable.
+	 *
+	 * @return parser for exclusive use until {@link #releaseParser(ArgumentParser) released}
+	 */
+	ArgumentParser getParser() {
+		var parser = parsers.poll();
+		if (parser == null) {
+			parser = new ArgumentParser(invokeIndex, invokeTrie, targets, commands, abbreviations, responseFiles, combinedOptions, listener);
+		}
+		return parser;
+	}
+
+	/**
+	 * Returns a parser taken by {@link #getParser()} for reuse.
+	 *
+	 * @param parser parser no longer in use
+	 */
+	void releaseParser(ArgumentParser parser) {
+		parsers.offer(parser);
+	}
+
+	/**
+	 * @return options in order of registration (unmodifiable)
+	 */
+	public List<HelpOption> getOptions() {
+		return options;
+	}
+
+	/**
+	 * @return invoke aliases to their option (unmodifiable)
+	 */
+	Map<String, HelpOption> getInvokeIndex() {
+		return invokeIndex;
+	}
+
+	/**
+	 * Returns whether an option contains the given input invoke.
+	 *
+	 * @param input invoke to search for
+	 * @return {@code true} if found. {@code false} if not.
+	 */
+	public boolean hasOptionInvoke(String input) {
+		return input != null && lookup(input, false) != null;
+	}
+
+	/**
+	 * Returns the option exactly matching the given input invoke. If no matching option is found, an exception will be
+	 * raised.
+	 *
+	 * @param input invoke to search for
+	 * @return matching option
+	 * @throws NoSuchElementException if no option matches the given input
+	 */
+	public HelpOption getOptionByInvoke(String input) throws NoSuchElementException {
+		var option = input == null ? null : lookup(input, false);
+		if (option == null) {
+			throw new NoSuchElementException(invokeTrie.describeUnknown(input));
+		}
+		return option;
+	}
+
+	/**
+	 * Returns the option exactly matching the given input invoke or, if there is none, the only option with an invoke
+	 * starting with the input.
+	 *
+	 * @param input invoke or invoke prefix to search for
+	 * @return matching option
+	 * @throws NoSuchElementException if no option or multiple options match the given input
+	 * @see JavaHelp#getOptionByPrefix(String)
+	 */
+	public HelpOption getOptionByPrefix(String input) throws NoSuchElementException {
+		var option = input == null ? null : lookup(input, true);
+		if (option == null) {
+			throw new NoSuchElementException(invokeTrie.describeUnknown(input));
+		}
+		return option;
+	}
+
+	/**
+	 * Looks up the given input and reports the lookup to the listener, if set.
+	 *
+	 * @param input  invoke or invoke prefix to search for
+	 * @param prefix whether to accept an unambiguous invoke prefix
+	 * @return matching option or {@code null} if none
+	 */
+	private HelpOption lookup(String input, boolean prefix) {
+		var start = listener == null ? 0 : System.nanoTime();
+		var option = prefix ? invokeTrie.getByPrefix(input, 0, input.length()) : invokeIndex.get(input);
+		if (listener != null) {
+			listener.onLookup(input, option, System.nanoTime() - start);
+		}
+		return option;
+	}
+
+	/**
+	 * Returns all invokes starting with the given prefix.
+	 *
+	 * @param prefix invoke prefix
+	 * @return matching invokes in alphabetical order
+	 */
+	public List<String> complete(String prefix) {
+		return invokeTrie.complete(prefix);
+	}
+
+	/**
+	 * Returns the printable representation of the option exactly matching the given input invoke, rendered on first
+	 * use.
+	 *
+	 * @param input invoke to search for
+	 * @return printable representation of the option
+	 * @throws NoSuchElementException if no option matches the given input
+	 */
+	public String getOptionHelp(String input) throws NoSuchElementException {
+		var option = getOptionByInvoke(input);
+		var b = blocks;
+		if (b == null) {
+			render();
+			b = blocks;
+		}
+		return b.get(option);
+	}
+
+	/**
+	 * Returns the invokes within the given edit distance of the input.
+	 *
+	 * @param input       input to search for
+	 * @param maxDistance maximum edit distance
+	 * @return closest invokes, closest first
+	 * @see JavaHelp#suggestInvokes(String, int)
+	 */
+	public String[] suggestInvokes(String input, int maxDistance) {
+		return invokeTrie.suggest(input, maxDistance, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Parses the given command line arguments like {@link JavaHelp#parse(String...)}, including subcommands.
+	 *
+	 * @param args command line arguments
+	 * @return immutable parse result
+	 * @throws IllegalArgumentException if a parameter is missing or invalid, or if there are more inputs than targets
+	 */
+	public ParseResult parse(String... args) throws IllegalArgumentException {
+		var parser = getParser();
+		try {
+			var result = parser.parse(args);
+			if (result == null) {
+				throw new IllegalArgumentException(parser.getError());
+			}
+			return result;
+		} finally {
+			releaseParser(parser);
+		}
+	}
+
+	/**
+	 * Parses every given command line. Unlike {@link #parse(String...)} an invalid command line does not throw but is
+	 * reported by its outcome, and the remaining command lines are still parsed.
+	 *
+	 * @param commandLines command lines to parse
+	 * @return outcome of every command line, in order
+	 */
+	public List<ParseOutcome> parseAll(Iterable<String[]> commandLines) {
+		var parser = getParser();
+		try {
+			var outcomes = new ArrayList<ParseOutcome>();
+			for (var args : commandLines) {
+				outcomes.add(parse(parser, args));
+			}
+			return outcomes;
+		} finally {
+			releaseParser(parser);
+		}
+	}
+
+	/**
+	 * Lazily parses every command line of the given stream like {@link #parseAll(Iterable)}. A parallel stream is parsed
+	 * in parallel (by default on the common fork-join pool), each parse taking an idle parser.
+	 *
+	 * @param commandLines command lines to parse
+	 * @return stream of the outcome of every command line, in encounter order if the given stream is ordered
+	 */
+	public Stream<ParseOutcome> parseAll(Stream<String[]> commandLines) {
+		return commandLines.map(args -> {
+			var parser = getParser();
+			try {
+				return parse(parser, args);
+			} finally {
+				releaseParser(parser);
+			}
+		});
+	}
+
+	private static ParseOutcome parse(ArgumentParser parser, String[] args) {
+		var result = parser.parse(args);
+		return new ParseOutcome(args, result, parser.getError());
+	}
+
+	/**
+	 * Appends the printable representation to the given sink.
+	 *
+	 * @param out sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	public void renderTo(Appendable out) throws IOException {
+		out.append(toString());
+	}
+
+	/**
+	 * Returns the printable representation, rendered on first use. It is the same as the one of the compiled JavaHelp
+	 * at compilation.
+	 *
+	 * @return printable representation
+	 */
+	@Override
+	public String toString() {
+		var s = rendered;
+		return s == null ? render() : s;
+	}
+
+	/**
+	 * Renders the option blocks and the printable representation. Threads racing on the first use render the same
+	 * result, so it is not locked.
+	 *
+	 * @return printable representation
+	 */
+	private String render() {
+		var start = listener == null ? 0 : System.nanoTime();
+		var ordered = new ArrayList<String>(options.size());
+		var length = usage.length() + 256;
+		for (var option : options) {
+			var block = option.toString(indent, descriptionIndent, paragraphLimit);
+			ordered.add(block);
+			length += block.length() + 1;
+		}
+
+		var sb = new StringBuilder(length).append(usage);
+		if (!options.isEmpty()) {
+			sb.append("\n\n")
+					.append("OPTIONS:")
+					.append("\n");
+
+			var sorted = sortAlphabetically ? ordered.stream().sorted().toList() : ordered;
+			for (var i = 0; i < sorted.size(); i++) {
+				if (i > 0) sb.append('\n');
+				sb.append(sorted.get(i));
+			}
+		}
+
+		if (!commandList.isEmpty()) {
+			sb.append("\n\n")
+					.append("COMMANDS:")
+					.append("\n");
+
+			try {
+				for (var i = 0; i < commandList.size(); i++) {
+					if (i > 0) sb.append('\n');
+					commandList.get(i).renderTo(sb, indent, descriptionIndent, paragraphLimit);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e); // StringBuilder does not throw
+			}
+		}
+
+		blocks = indexBlocks(ordered);
+		var s = sb.toString();
+		rendered = s;
+		if (listener != null) {
+			listener.onRender(System.nanoTime() - start);
+		}
+		return s;
+	}
+
+	private Map<HelpOption, String> indexBlocks(List<String> blocks) {
+		var optionBlocks = new HashMap<HelpOption, String>();
+		for (var i = 0; i < options.size(); i++) {
+			optionBlocks.put(options.get(i), blocks.get(i));
+		}
+		return Map.copyOf(optionBlocks);
+	}
+}
@@ -0,0 +1,373 @@
+package org.joeftiger.jhelp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates static tab completion scripts for bash, zsh and fish from a {@link JavaHelp}, so completing runs entirely in
+ * the shell without starting a JVM. The scripts complete:
+ * <ul>
+ *     <li>every invoke alias of every option</li>
+ *     <li>the enumerated parameters of an option (and {@code true}/{@code false} for {@code Boolean})</li>
+ *     <li>file paths for parameters of class {@code Path} or {@code File}; other typed parameters complete nothing</li>
+ *     <li>the names of subcommands (without building them) and invokes not starting with {@code '-'} as arguments,
+ *     followed by file paths</li>
+ * </ul>
+ * The command to complete is the program name of the {@link HelpUsage}. Scripts are streamed to the sink; regenerate
+ * them whenever the options change.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public final class CompletionScripts {
+
+	private CompletionScripts() {
+	}
+
+	/**
+	 * Writes a bash completion script, to be sourced (e.g. from {@code /etc/bash_completion.d}).
+	 *
+	 * @param help help to complete
+	 * @param out  sink to append to
+	 * @throws IOException              if the sink fails
+	 * @throws IllegalArgumentException if the help has no program name
+	 */
+	public static void bash(JavaHelp help, Appendable out) throws IOException, IllegalArgumentException {
+		var program = programName(help);
+		var function = "_" + program.replaceAll("\\W", "_") + "_complete";
+
+		out.append("# bash completion for ").append(program).append('\n');
+		out.append(function).append("() {\n");
+		out.append("\tlocal cur=\"${COMP_WORDS[COMP_CWORD]}\"\n");
+		out.append("\tlocal prev=\"\"\n");
+		out.append("\tif ((COMP_CWORD > 0)); then prev=\"${COMP_WORDS[COMP_CWORD-1]}\"; fi\n");
+
+		var hasParameters = false;
+		for (var option : help.getOptions()) {
+			if (option.hasParameter() && option.getOptionInvoke() != null) {
+				hasParameters = true;
+				break;
+			}
+		}
+		if (hasParameters) {
+			out.append("\tcase \"$prev\" in\n");
+			for (var option : help.getOptions()) {
+				if (!option.hasParameter() || option.getOptionInvoke() == null) continue;
+
+				out.append("\t\t");
+				var invokes = option.getOptionInvoke().getInvokes();
+				for (var i = 0; i < invokes.length; i++) {
+					if (i > 0) out.append('|');
+					quote(out, invokes[i]);
+				}
+				out.append(")\n");
+
+				var parameter = option.getOptionParameter();
+				var values = values(parameter);
+				if (values != null) {
+					out.append("\t\t\tCOMPREPLY=($(compgen -W ");
+					bashWords(out, List.of(values));
+					out.append(" -- \"$cur\"))\n");
+				} else if (isFile(parameter)) {
+					out.append("\t\t\tcompopt -o filenames 2>/dev/null\n");
+					out.append("\t\t\tCOMPREPLY=($(compgen -f -- \"$cur\"))\n");
+				} else {
+					out.append("\t\t\tCOMPREPLY=()\n");
+				}
+				out.append("\t\t\treturn;;\n");
+			}
+			out.append("\tesac\n");
+		}
+
+		out.append("\tif [[ \"$cur\" == -* ]]; then\n");
+		out.append("\t\tCOMPREPLY=($(compgen -W ");
+		bashWords(out, invokes(help, true));
+		out.append(" -- \"$cur\"))\n");
+		out.append("\t\treturn\n");
+		out.append("\tfi\n");
+		out.append("\tcompopt -o filenames 2>/dev/null\n");
+		out.append("\tCOMPREPLY=(");
+		var words = words(help);
+		if (!words.isEmpty()) {
+			out.append("$(compgen -W ");
+			bashWords(out, words);
+			out.append(" -- \"$cur\") ");
+		}
+		out.append("$(compgen -f -- \"$cur\"))\n");
+		out.append("}\n");
+		out.append("complete -F ").append(function).append(' ');
+		quote(out, program);
+		out.append('\n');
+	}
+
+	/**
+	 * Writes a zsh completion function, to be saved as {@code _<program>} in a directory of the {@code fpath}.
+	 *
+	 * @param help help to complete
+	 * @param out  sink to append to
+	 * @throws IOException              if the sink fails
+	 * @throws IllegalArgumentException if the help has no program name
+	 */
+	public static void zsh(JavaHelp help, Appendable out) throws IOException, IllegalArgumentException {
+		var program = programName(help);
+
+		out.append("#compdef ").append(program).append("\n\n");
+		out.append("local state\n");
+		out.append("local -a names\n");
+		out.append("names=(");
+		var first = true;
+		for (var word : words(help)) {
+			if (!first) out.append(' ');
+			quote(out, word);
+			first = false;
+		}
+		out.append(")\n");
+
+		out.append("_arguments -s");
+		for (var option : help.getOptions()) {
+			if (option.getOptionInvoke() == null) continue;
+
+			for (var invoke : option.getOptionInvoke().getInvokes()) {
+				if (!isOptionLike(invoke)) continue;
+
+				var spec = new StringBuilder(invoke);
+				var description = option.getDescription();
+				if (description != null && !description.isBlank()) {
+					spec.append('[');
+					escape(spec, normalize(description), "[]:\\");
+					spec.append(']');
+				}
+				if (option.hasParameter()) {
+					var parameter = option.getOptionParameter();
+					var values = values(parameter);
+					if (values != null) {
+						spec.append(":value:(");
+						for (var i = 0; i < values.length; i++) {
+							if (i > 0) spec.append(' ');
+							escape(spec, values[i], " ()[]:\\");
+						}
+						spec.append(')');
+					} else if (isFile(parameter)) {
+						spec.append(':').append(parameter.getClassName()).append(":_files");
+					} else {
+						spec.append(':').append(parameter.getClassName()).append(": ");
+					}
+				}
+				out.append(" \\\n\t");
+				quote(out, spec);
+			}
+		}
+		out.append(" \\\n\t'*: :->argument'\n\n");
+
+		out.append("if [[ $state == argument ]]; then\n");
+		out.append("\tcompadd -a names\n");
+		out.append("\t_files\n");
+		out.append("fi\n");
+	}
+
+	/**
+	 * Writes a fish completion script, to be saved as {@code <program>.fish} in a directory of the {@code
+	 * fish_complete_path}.
+	 *
+	 * @param help help to complete
+	 * @param out  sink to append to
+	 * @throws IOException              if the sink fails
+	 * @throws IllegalArgumentException if the help has no program name
+	 */
+	public static void fish(JavaHelp help, Appendable out) throws IOException, IllegalArgumentException {
+		var program = programName(help);
+
+		out.append("# fish completion for ").append(program).append('\n');
+		for (var option : help.getOptions()) {
+			if (option.getOptionInvoke() == null) continue;
+
+			var flags = new StringBuilder();
+			var arguments = new ArrayList<String>();
+			for (var invoke : option.getOptionInvoke().getInvokes()) {
+				if (invoke.startsWith("--") && invoke.length() > 2) {
+					flags.append(" -l ");
+					fishQuote(flags, invoke.substring(2));
+				} else if (invoke.length() == 2 && invoke.charAt(0) == '-') {
+					flags.append(" -s ");
+					fishQuote(flags, invoke.substring(1));
+				} else if (isOptionLike(invoke)) {
+					flags.append(" -o ");
+					fishQuote(flags, invoke.substring(1));
+				} else {
+					arguments.add(invoke);
+				}
+			}
+
+			if (flags.length() > 0) {
+				out.append("complete -c ");
+				fishQuote(out, program);
+				out.append(flags);
+				appendFishDescription(out, option.getDescription());
+				if (option.hasParameter()) {
+					var parameter = option.getOptionParameter();
+					var values = values(parameter);
+					if (values != null) {
+						out.append(" -x -a ");
+						fishQuote(out, String.join(" ", values));
+					} else if (isFile(parameter)) {
+						out.append(" -r -F");
+					} else {
+						out.append(" -x");
+					}
+				}
+				out.append('\n');
+			}
+			for (var argument : arguments) {
+				out.append("complete -c ");
+				fishQuote(out, program);
+				out.append(" -a ");
+				fishQuote(out, argument);
+				appendFishDescription(out, option.getDescription());
+				out.append('\n');
+			}
+		}
+
+		for (var command : help.getCommands()) {
+			out.append("complete -c ");
+			fishQuote(out, program);
+			out.append(" -n '__fish_use_subcommand' -a ");
+			fishQuote(out, command.getName());
+			appendFishDescription(out, command.getDescription());
+			out.append('\n');
+		}
+	}
+
+	/**
+	 * @param help help
+	 * @return program name of the usage
+	 * @throws IllegalArgumentException if there is no program name
+	 */
+	private static String programName(JavaHelp help) throws IllegalArgumentException {
+		var usage = help.getUsage();
+		var program = usage == null ? null : usage.getProgramName();
+		if (program == null || program.isBlank() || program.equals("null")) {
+			throw new IllegalArgumentException("Missing program name");
+		}
+		return program;
+	}
+
+	/**
+	 * @param help   help
+	 * @param dashed whether to return the invokes starting with {@code '-'} or all others
+	 * @return invokes of all options
+	 */
+	private static List<String> invokes(JavaHelp help, boolean dashed) {
+		var invokes = new ArrayList<String>();
+		for (var option : help.getOptions()) {
+			if (option.getOptionInvoke() == null) continue;
+
+			for (var invoke : option.getOptionInvoke().getInvokes()) {
+				if (isOptionLike(invoke) == dashed) {
+					invokes.add(invoke);
+				}
+			}
+		}
+		return invokes;
+	}
+
+	/**
+	 * @param help help
+	 * @return command names and invokes not starting with {@code '-'}
+	 */
+	private static List<String> words(JavaHelp help) {
+		var words = invokes(help, false);
+		for (var command : help.getCommands()) {
+			words.add(command.getName());
+		}
+		return words;
+	}
+
+	/**
+	 * @param parameter option parameter
+	 * @return values to complete, {@code null} if not enumerable
+	 */
+	private static String[] values(HelpOption.OptionParameter parameter) {
+		if (parameter.getParameters().length > 0) {
+			return parameter.getParameters();
+		}
+		if ("Boolean".equals(parameter.getClassName()) || "boolean".equals(parameter.getClassName())) {
+			return new String[]{"true", "false"};
+		}
+		return null;
+	}
+
+	/**
+	 * @param parameter option parameter
+	 * @return whether the parameter is a file path
+	 */
+	private static boolean isFile(HelpOption.OptionParameter parameter) {
+		return "Path".equals(parameter.getClassName()) || "File".equals(parameter.getClassName());
+	}
+
+	private static boolean isOptionLike(String invoke) {
+		return invoke.length() > 1 && invoke.charAt(0) == '-';
+	}
+
+	private static String normalize(String description) {
+		return description.strip().replaceAll("\\s+", " ");
+	}
+
+	/**
+	 * Appends the given words as a single-quoted {@code compgen -W} word list, escaping characters that compgen would
+	 * expand.
+	 */
+	private static void bashWords(Appendable out, List<String> words) throws IOException {
+		var list = new StringBuilder();
+		for (var word : words) {
+			if (list.length() > 0) list.append(' ');
+			escape(list, word, " \t\\$`\"'");
+		}
+		quote(out, list);
+	}
+
+	/**
+	 * Appends the given text single-quoted for POSIX shells.
+	 */
+	private static void quote(Appendable out, CharSequence text) throws IOException {
+		out.append('\'');
+		for (var i = 0; i < text.length(); i++) {
+			var c = text.charAt(i);
+			if (c == '\'') {
+				out.append("'\\''");
+			} else {
+				out.append(c);
+			}
+		}
+		out.append('\'');
+	}
+
+	/**
+	 * Appends the given text single-quoted for fish.
+	 */
+	private static void fishQuote(Appendable out, CharSequence text) throws IOException {
+		out.append('\'');
+		escape(out, text, "'\\");
+		out.append('\'');
+	}
+
+	private static void appendFishDescription(Appendable out, String description) throws IOException {
+		if (description != null && !description.isBlank()) {
+			out.append(" -d ");
+			fishQuote(out, normalize(description));
+		}
+	}
+
+	/**
+	 * Appends the given text, escaping the given characters with a backslash.
+	 */
+	private static void escape(Appendable out, CharSequence text, String special) throws IOException {
+		for (var i = 0; i < text.length(); i++) {
+			var c = text.charAt(i);
+			if (special.indexOf(c) >= 0) {
+				out.append('\\');
+			}
+			out.append(c);
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package org.joeftiger.jhelp;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A pre-rendered help exported from a {@link CompiledHelp}, for programs that want to print their help or check invokes
+ * without building the options first. A catalog holds the rendered text and the invoke aliases with the index of their
+ * option in {@link CompiledHelp#getOptions()}, but no callbacks or parameter types.
+ * <p>
+ * The binary format (big-endian) is:
+ * <pre>
+ * int    magic 0x4A484C50 ("JHLP")
+ * short  version
+ * int    number of options
+ * int    number of invokes, followed by each invoke in ascending order:
+ *        int option index, unsigned short length (at most 65535), UTF-8 bytes
+ * int    length of the rendered text, followed by its UTF-8 bytes
+ * </pre>
+ * Catalog files are memory-mapped; the rendered text is only decoded when first requested. A HelpCatalog is immutable
+ * and may be shared between threads.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public final class HelpCatalog {
+	private static final int MAGIC = 0x4A484C50;
+	private static final short VERSION = 1;
+
+	private final int numberOfOptions;
+	private final String[] invokes;
+	private final int[] optionIndices;
+	private final ByteBuffer renderedBytes;
+	private volatile String rendered;
+
+	private HelpCatalog(int numberOfOptions, String[] invokes, int[] optionIndices, ByteBuffer renderedBytes) {
+		this.numberOfOptions = numberOfOptions;
+		this.invokes = invokes;
+		this.optionIndices = optionIndices;
+		this.renderedBytes = renderedBytes;
+	}
+
+	/**
+	 * Writes the catalog of the given help. Nothing is written if an invoke is too long for the format.
+	 *
+	 * @param help help to export
+	 * @param out  stream to write to (not closed)
+	 * @throws IOException              if the stream fails
+	 * @throws IllegalArgumentException if an invoke is longer than 65535 UTF-8 bytes
+	 */
+	public static void write(CompiledHelp help, OutputStream out) throws IOException, IllegalArgumentException {
+		var options = help.getOptions();
+		var indices = new IdentityHashMap<HelpOption, Integer>();
+		for (var i = 0; i < options.size(); i++) {
+			indices.put(options.get(i), i);
+		}
+		var invokeIndex = help.getInvokeIndex();
+		var sorted = invokeIndex.keySet().toArray(String[]::new);
+		Arrays.sort(sorted);
+		var encoded = new byte[sorted.length][];
+		for (var i = 0; i < sorted.length; i++) {
+			encoded[i] = sorted[i].getBytes(StandardCharsets.UTF_8);
+			if (encoded[i].length > 0xFFFF) {
+				throw new IllegalArgumentException("Invoke longer than 65535 UTF-8 bytes: " + sorted[i].substring(0, 32) + "...");
+			}
+		}
+
+		var data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeShort(VERSION);
+		data.writeInt(options.size());
+		data.writeInt(sorted.length);
+		for (var i = 0; i < sorted.length; i++) {
+			data.writeInt(indices.get(invokeIndex.get(sorted[i])));
+			data.writeShort(encoded[i].length);
+			data.write(encoded[i]);
+		}
+		var bytes = help.toString().getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+		data.flush();
+	}
+
+	/**
+	 * Writes the catalog of the given help to a file.
+	 *
+	 * @param help help to export
+	 * @param file file to write to
+	 * @throws IOException              if the file cannot be written
+	 * @throws IllegalArgumentException if an invoke is longer than 65535 UTF-8 bytes
+	 */
+	public static void write(CompiledHelp help, Path file) throws IOException, IllegalArgumentException {
+		try (var out = Files.newOutputStream(file)) {
+			write(help, out);
+		}
+	}
+
+	/**
+	 * Loads a catalog by memory-mapping the given file.
+	 *
+	 * @param file catalog file
+	 * @return loaded catalog
+	 * @throws IOException if the file cannot be read or is not a valid catalog
+	 */
+	public static HelpCatalog load(Path file) throws IOException {
+		try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Loads a catalog from the given stream, e.g. a classpath resource (which cannot be mapped).
+	 *
+	 * @param in stream to read (not closed)
+	 * @return loaded catalog
+	 * @throws IOException if the stream fails or does not contain a valid catalog
+	 */
+	public static HelpCatalog load(InputStream in) throws IOException {
+		return load(ByteBuffer.wrap(in.readAllBytes()));
+	}
+
+	private static HelpCatalog load(ByteBuffer buffer) throws IOException {
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Not a help catalog");
+			}
+			var version = buffer.getShort();
+			if (version != VERSION) {
+				throw new IOException("Unsupported help catalog version: " + version);
+			}
+
+			var numberOfOptions = buffer.getInt();
+			var count = buffer.getInt();
+			// each invoke takes at least its option index and length
+			if (numberOfOptions < 0 || count < 0 || count > buffer.remaining() / 6) {
+				throw new IOException("Corrupt help catalog: " + numberOfOptions + " options, " + count + " invokes");
+			}
+			var invokes = new String[count];
+			var optionIndices = new int[count];
+			var bytes = new byte[256];
+			for (var i = 0; i < count; i++) {
+				optionIndices[i] = buffer.getInt();
+				if (optionIndices[i] < 0 || optionIndices[i] >= numberOfOptions) {
+					throw new IOException("Corrupt help catalog: option index " + optionIndices[i] + " of "
+							+ numberOfOptions + " options");
+				}
+				var length = Short.toUnsignedInt(buffer.getShort());
+				if (length > bytes.length) bytes = new byte[length];
+				buffer.get(bytes, 0, length);
+				invokes[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+			}
+
+			var length = buffer.getInt();
+			var rendered = buffer.slice(buffer.position(), length);
+			return new HelpCatalog(numberOfOptions, invokes, optionIndices, rendered);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("Truncated help catalog", e);
+		}
+	}
+
+	/**
+	 * @return number of options of the exported help
+	 */
+	public int numberOfOptions() {
+		return numberOfOptions;
+	}
+
+	/**
+	 * Returns whether an option contains the given input invoke.
+	 *
+	 * @param input invoke to search for
+	 * @return {@code true} if found. {@code false} if not.
+	 */
+	public boolean hasOptionInvoke(String input) {
+		return input != null && Arrays.binarySearch(invokes, input) >= 0;
+	}
+
+	/**
+	 * Returns the index of the option exactly matching the given input invoke.
+	 *
+	 * @param input invoke to search for
+	 * @return index of the option in {@link CompiledHelp#getOptions()} of the exported help
+	 * @throws NoSuchElementException if no option matches the given input
+	 */
+	public int getOptionIndex(String input) throws NoSuchElementException {
+		var i = input == null ? -1 : Arrays.binarySearch(invokes, input);
+		if (i < 0) {
+			throw new NoSuchElementException("Unknown option: " + input);
+		}
+		return optionIndices[i];
+	}
+
+	/**
+	 * Returns all invokes starting with the given prefix in alphabetical order.
+	 *
+	 * @param prefix invoke prefix
+	 * @return matching invokes
+	 */
+	public List<String> complete(String prefix) {
+		var from = Arrays.binarySearch(invokes, prefix);
+		if (from < 0) from = -from - 1;
+
+		var matches = new ArrayList<String>();
+		for (var i = from; i < invokes.length && invokes[i].startsWith(prefix); i++) {
+			matches.add(invokes[i]);
+		}
+		return matches;
+	}
+
+	/**
+	 * Appends the pre-rendered help to the given sink.
+	 *
+	 * @param out sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	public void renderTo(Appendable out) throws IOException {
+		out.append(toString());
+	}
+
+	/**
+	 * Returns the pre-rendered help, decoded on first use.
+	 *
+	 * @return printable representation
+	 */
+	@Override
+	public String toString() {
+		var s = rendered;
+		if (s == null) {
+			// a race decodes twice to equal strings
+			s = StandardCharsets.UTF_8.decode(renderedBytes.duplicate()).toString();
+			rendered = s;
+		}
+		return s;
+	}
+}
@@ -0,0 +1,127 @@
+package org.joeftiger.jhelp;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * A subcommand registered with {@link JavaHelp#addCommand(String, String, Supplier)}. The name and description are
+ * known up front for rendering, while the {@link JavaHelp} of the command is only built by its supplier once the name
+ * is resolved, and then kept. Parsing uses a {@link CompiledHelp} of the command, compiled once on first parse. Building
+ * and compiling are thread-safe and happen at most once.
+ */
+final class HelpCommand {
+	private final String name;
+	private final String description;
+	private Supplier<JavaHelp> supplier;
+	private volatile JavaHelp help;
+	private volatile CompiledHelp compiled;
+
+	/**
+	 * @param name        name of the command
+	 * @param description description of the command. may be {@code null}
+	 * @param supplier    builds the help of the command
+	 */
+	HelpCommand(String name, String description, Supplier<JavaHelp> supplier) {
+		this.name = name;
+		this.description = description;
+		this.supplier = supplier;
+	}
+
+	/**
+	 * @return name of the command
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * @return description of the command (may be {@code null})
+	 */
+	String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return whether the help of the command was built
+	 */
+	boolean isBuilt() {
+		return help != null;
+	}
+
+	/**
+	 * Returns the help of the command, building it on first use.
+	 *
+	 * @return help of the command
+	 * @throws IllegalStateException if the supplier returns {@code null}
+	 */
+	JavaHelp get() throws IllegalStateException {
+		var h = help;
+		if (h == null) {
+			synchronized (this) {
+				h = help;
+				if (h == null) {
+					h = supplier.get();
+					if (h == null) {
+						throw new IllegalStateException("Supplier of command " + name + " returned null");
+					}
+					help = h;
+					supplier = null; // release what the supplier captured
+				}
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Returns the snapshot of the command to parse with, building and compiling it on first use. Later changes to the
+	 * JavaHelp of the command are not seen by parsing.
+	 *
+	 * @return compiled help of the command
+	 * @throws IllegalStateException if the supplier returns {@code null}
+	 */
+	CompiledHelp compile() throws IllegalStateException {
+		var c = compiled;
+		if (c == null) {
+			var h = get();
+			synchronized (this) {
+				c = compiled;
+				if (c == null) {
+					c = h.compile();
+					compiled = c;
+				}
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * Appends the printable form of this command to the given sink, laid out like an option.
+	 *
+	 * @param out               sink to append to
+	 * @param indent            indent
+	 * @param descriptionIndent description indent
+	 * @param paragraphLimit    paragraph limit (before line break in description)
+	 * @throws IOException if the sink fails
+	 * @see HelpOption#renderTo(Appendable, int, int, int)
+	 */
+	void renderTo(Appendable out, int indent, int descriptionIndent, int paragraphLimit) throws IOException {
+		StringUtil.appendSpaces(out, indent);
+		out.append(name);
+
+		if (description != null && !description.isBlank()) {
+			if (name.length() >= descriptionIndent - indent) {
+				out.append('\n');
+				StringUtil.appendSpaces(out, descriptionIndent);
+			} else {
+				StringUtil.appendSpaces(out, descriptionIndent - indent - name.length());
+			}
+
+			StringUtil.appendPreservingWords(out, description, paragraphLimit - descriptionIndent, descriptionIndent);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,67 @@
+package org.joeftiger.jhelp;
+
+/**
+ * Receives measurements of the phases of a {@link JavaHelp} (and of the {@link CompiledHelp}s and {@link ParseResult}s
+ * created by it). All methods do nothing by default, so a listener only implements the phases it is interested in. No
+ * time is measured and no method is called if no listener is set.
+ * <p>
+ * Listeners may be called concurrently, e.g. by a shared {@link CompiledHelp} or by {@link
+ * ParseResult#dispatchAsync(java.util.concurrent.Executor)}, and should return quickly.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ * @see JavaHelp#setListener(HelpListener)
+ * @see HelpStatistics
+ */
+public interface HelpListener {
+
+	/**
+	 * Called after an invoke was looked up, by {@link JavaHelp#getOptionByInvoke(String)}, by the lookups of a {@link
+	 * CompiledHelp} or for an input looking like an option while parsing.
+	 *
+	 * @param input  looked up input
+	 * @param option found option or {@code null} if none
+	 * @param nanos  duration in nanoseconds
+	 */
+	default void onLookup(String input, HelpOption option, long nanos) {
+	}
+
+	/**
+	 * Called after an option parameter was validated and converted while parsing.
+	 *
+	 * @param option    option of the parameter
+	 * @param parameter validated parameter
+	 * @param valid     whether the parameter is valid
+	 * @param nanos     duration in nanoseconds
+	 */
+	default void onValidation(HelpOption option, String parameter, boolean valid, long nanos) {
+	}
+
+	/**
+	 * Called after an option callback was dispatched.
+	 *
+	 * @param option  option of the callback
+	 * @param nanos   duration in nanoseconds
+	 * @param failure exception thrown by the callback or {@code null} if it succeeded
+	 */
+	default void onCallback(HelpOption option, long nanos, RuntimeException failure) {
+	}
+
+	/**
+	 * Called after a target callback was dispatched.
+	 *
+	 * @param target  target of the callback
+	 * @param nanos   duration in nanoseconds
+	 * @param failure exception thrown by the callback or {@code null} if it succeeded
+	 */
+	default void onTargetCallback(HelpTarget target, long nanos, RuntimeException failure) {
+	}
+
+	/**
+	 * Called after a JavaHelp was rendered (not when a cached rendering is returned).
+	 *
+	 * @param nanos duration in nanoseconds
+	 */
+	default void onRender(long nanos) {
+	}
+}
@@ -1,6 +1,10 @@
 package org.joeftiger.jhelp;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
 
 public class HelpOption {
@@ -9,6 +13,13 @@ public class HelpOption {
 	private final OptionParameter optionParameter;
 	private final String description;
 	private final Consumer<String> callback;
+	private final Consumer<Object> valueCallback;
+	/** whether the callback parses the raw parameter into a primitive itself */
+	private final boolean primitiveCallback;
+	private final HelpOption[] dependencies;
+	/** views of {@link #getInvokes()} and {@link #getParameterValues()}, created on first use (a race creates equal views) */
+	private List<String> invokes;
+	private List<String> parameterValues;
 
 	/**
 	 * Creates a new Help option. It is recommended to use the specifically targeted {@link HelpOptionBuilder}.
@@ -19,10 +30,42 @@ public class HelpOption {
 	 * @param callback        callback
 	 */
 	public HelpOption(OptionInvoke optionInvoke, OptionParameter optionParameter, String description, Consumer<String> callback) {
+		this(optionInvoke, optionParameter, description, callback, null);
+	}
+
+	/**
+	 * Creates a new Help option with a typed callback.
+	 *
+	 * @param optionInvoke    invoke
+	 * @param optionParameter parameter
+	 * @param description     description
+	 * @param callback        callback converting its String input itself
+	 * @param valueCallback   callback taking values converted by {@link #parseValue(String)}. may be {@code null}
+	 */
+	HelpOption(OptionInvoke optionInvoke, OptionParameter optionParameter, String description, Consumer<String> callback, Consumer<Object> valueCallback) {
+		this(optionInvoke, optionParameter, description, callback, valueCallback, false, new HelpOption[0]);
+	}
+
+	/**
+	 * Creates a new Help option with a typed callback whose callback depends on the callbacks of other options.
+	 *
+	 * @param optionInvoke    invoke
+	 * @param optionParameter parameter
+	 * @param description     description
+	 * @param callback        callback converting its String input itself
+	 * @param valueCallback     callback taking values converted by {@link #parseValue(String)}. may be {@code null}
+	 * @param primitiveCallback whether the callback parses its String input into a primitive without boxing
+	 * @param dependencies      options whose callbacks must complete before this option's callback
+	 * @see ParseResult#dispatchAsync(java.util.concurrent.Executor)
+	 */
+	HelpOption(OptionInvoke optionInvoke, OptionParameter optionParameter, String description, Consumer<String> callback, Consumer<Object> valueCallback, boolean primitiveCallback, HelpOption[] dependencies) {
 		this.optionInvoke = optionInvoke;
 		this.optionParameter = optionParameter;
 		this.description = description;
 		this.callback = callback;
+		this.valueCallback = valueCallback;
+		this.primitiveCallback = primitiveCallback;
+		this.dependencies = dependencies;
 	}
 
 	/**
@@ -55,25 +98,53 @@ public class HelpOption {
 	 * @param descriptionIndent description indent
 	 * @param paragraphLimit    paragraph limit (before line break in description)
 	 * @return printable form of this Option
+	 * @see #renderTo(Appendable, int, int, int)
 	 */
 	public String toString(int indent, int descriptionIndent, int paragraphLimit) {
-		var out = optionInvoke.toString();
-		if (!optionParameter.isEmpty()) {
-			out += " " + optionParameter;
+		var sb = new StringBuilder();
+		try {
+			renderTo(sb, indent, descriptionIndent, paragraphLimit);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e); // StringBuilder does not throw
 		}
+		return sb.toString();
+	}
 
-		if (description != null && !description.isBlank()) {
-			String[] descriptionLines = StringUtil.splitPreservingWords(this.description, paragraphLimit - descriptionIndent);
-			String desc = String.join("\n" + " ".repeat(descriptionIndent), descriptionLines);
+	/**
+	 * Appends the printable form of this option to the given sink, without building it as a String first.
+	 *
+	 * @param out               sink to append to
+	 * @param indent            indent
+	 * @param descriptionIndent description indent
+	 * @param paragraphLimit    paragraph limit (before line break in description)
+	 * @throws IOException if the sink fails
+	 * @see #toString(int, int, int)
+	 */
+	public void renderTo(Appendable out, int indent, int descriptionIndent, int paragraphLimit) throws IOException {
+		var headerLength = optionInvoke == null ? 0 : optionInvoke.length();
+		if (hasParameter()) {
+			headerLength += 1 + optionParameter.length();
+		}
 
-			if (out.length() >= descriptionIndent - indent) {
-				return " ".repeat(indent) + out + "\n" + " ".repeat(descriptionIndent) + desc;
+		StringUtil.appendSpaces(out, indent);
+		if (optionInvoke != null) {
+			optionInvoke.appendTo(out);
+		}
+		if (hasParameter()) {
+			out.append(' ');
+			optionParameter.appendTo(out);
+		}
+
+		if (description != null && !description.isBlank()) {
+			if (headerLength >= descriptionIndent - indent) {
+				out.append('\n');
+				StringUtil.appendSpaces(out, descriptionIndent);
 			} else {
-				out = " ".repeat(indent) + out;
-				return out + " ".repeat(Math.max(0, descriptionIndent - out.length())) + desc;
+				StringUtil.appendSpaces(out, descriptionIndent - indent - headerLength);
 			}
+
+			StringUtil.appendPreservingWords(out, description, paragraphLimit - descriptionIndent, descriptionIndent);
 		}
-		return " ".repeat(indent) + out;
 	}
 
 	/**
@@ -86,6 +157,13 @@ public class HelpOption {
 		return optionInvoke != null && optionInvoke.matches(input);
 	}
 
+	/**
+	 * @return invoke aliases of this option (may be {@code null})
+	 */
+	OptionInvoke getOptionInvoke() {
+		return optionInvoke;
+	}
+
 	/**
 	 * Returns whether this option has the given input as valid parameter.
 	 *
@@ -100,11 +178,83 @@ public class HelpOption {
 		return optionParameter.matches(input);
 	}
 
+	/**
+	 * Validates the given input and converts it to the parameter type of this option (e.g. an {@link Integer} for
+	 * {@code Integer} parameters). Inputs of enumerated parameters are returned as they are.
+	 *
+	 * @param input option parameter
+	 * @return converted parameter
+	 * @throws IllegalArgumentException if the input does not match the parameter
+	 * @see #matchesParameter(String)
+	 */
+	public Object parseValue(String input) throws IllegalArgumentException {
+		if (!matchesParameter(input)) {
+			throw new IllegalArgumentException("Invalid parameter: " + input);
+		}
+		return optionParameter.convert(input);
+	}
+
+	/**
+	 * Converts an input that already matched the parameter, without validating it again.
+	 *
+	 * @param input matching option parameter
+	 * @return converted parameter
+	 */
+	Object convertParameter(String input) {
+		return optionParameter.convert(input);
+	}
+
+	/**
+	 * @return invoke aliases in order of registration (unmodifiable, not copied)
+	 */
+	public List<String> getInvokes() {
+		var view = invokes;
+		if (view == null) {
+			view = optionInvoke == null ? List.of() : Collections.unmodifiableList(Arrays.asList(optionInvoke.getInvokes()));
+			invokes = view;
+		}
+		return view;
+	}
+
+	/**
+	 * @return description (may be {@code null})
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return simple name of the parameter class (e.g. {@code "Integer"}), {@code null} if the parameter is enumerated or
+	 * there is none
+	 */
+	public String getParameterClass() {
+		return hasParameter() ? optionParameter.getClassName() : null;
+	}
+
+	/**
+	 * @return possible parameters of an enumerated parameter, otherwise empty (unmodifiable, not copied)
+	 */
+	public List<String> getParameterValues() {
+		var view = parameterValues;
+		if (view == null) {
+			view = hasParameter() ? Collections.unmodifiableList(Arrays.asList(optionParameter.getParameters())) : List.of();
+			parameterValues = view;
+		}
+		return view;
+	}
+
+	/**
+	 * @return option parameter
+	 */
+	OptionParameter getOptionParameter() {
+		return optionParameter;
+	}
+
 	/**
 	 * @return whether this option has specific parameters
 	 */
 	public boolean hasParameter() {
-		return optionParameter != null;
+		return optionParameter != null && !optionParameter.isEmpty();
 	}
 
 	/**
@@ -114,6 +264,13 @@ public class HelpOption {
 		return callback;
 	}
 
+	/**
+	 * @return options whose callbacks must complete before this option's callback when dispatched asynchronously
+	 */
+	HelpOption[] getDependencies() {
+		return dependencies;
+	}
+
 	/**
 	 * Applies the given parameter to the callback function.
 	 *
@@ -124,6 +281,30 @@ public class HelpOption {
 		callback.accept(parameter);
 	}
 
+	/**
+	 * @return whether the callback parses the raw parameter into a primitive, so parameters are not converted when
+	 * parsing
+	 */
+	boolean hasPrimitiveCallback() {
+		return primitiveCallback;
+	}
+
+	/**
+	 * Applies a parameter to the callback. Typed callbacks receive the already converted value, all others the raw
+	 * input.
+	 *
+	 * @param parameter raw parameter
+	 * @param value     parameter converted by {@link #convertParameter(String)}, {@code null} if not converted
+	 * @throws IllegalArgumentException if callback cannot process the parameter
+	 */
+	void applyToCallback(String parameter, Object value) throws IllegalArgumentException {
+		if (valueCallback != null && value != null) {
+			valueCallback.accept(value);
+		} else {
+			callback.accept(parameter);
+		}
+	}
+
 	static class OptionInvoke {
 		private final String[] invokes;
 
@@ -132,7 +313,43 @@ public class HelpOption {
 		}
 
 		public boolean matches(String input) {
-			return Arrays.asList(invokes).contains(input);
+			for (var invoke : invokes) {
+				if (invoke.equals(input)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return invoke aliases (not copied)
+		 */
+		String[] getInvokes() {
+			return invokes;
+		}
+
+		/**
+		 * @return length of {@link #toString()}
+		 */
+		int length() {
+			var length = 2 * Math.max(0, invokes.length - 1);
+			for (var invoke : invokes) {
+				length += invoke.length();
+			}
+			return length;
+		}
+
+		/**
+		 * Appends {@link #toString()} to the given sink.
+		 *
+		 * @param out sink to append to
+		 * @throws IOException if the sink fails
+		 */
+		void appendTo(Appendable out) throws IOException {
+			for (var i = 0; i < invokes.length; i++) {
+				if (i > 0) out.append(", ");
+				out.append(invokes[i]);
+			}
 		}
 
 		@Override
@@ -142,19 +359,69 @@ public class HelpOption {
 	}
 
 	static class OptionParameter {
-		private String Class;
-		private String[] parameters;
+		private final String Class;
+		private final ParameterType<?> type;
+		private final String[] parameters;
+		private final ParameterSet parameterSet;
+		private final Object[] constants;
 
 		public OptionParameter(Class<?> Class) {
-			this(Class.getSimpleName());
+			this(Class, TypeRegistry.getDefault().get(Class));
+		}
+
+		/**
+		 * Creates a typed parameter.
+		 *
+		 * @param Class parameter class
+		 * @param type  validation and conversion. {@code null} to accept any param as it is
+		 */
+		public OptionParameter(Class<?> Class, ParameterType<?> type) {
+			this(Class.getSimpleName(), type);
 		}
 
 		public OptionParameter(String Class) {
+			this(Class, TypeRegistry.getDefault().get(Class.strip()));
+		}
+
+		private OptionParameter(String Class, ParameterType<?> type) {
 			this.Class = Class.strip();
+			this.type = type;
+			this.parameters = null;
+			this.parameterSet = null;
+			this.constants = null;
 		}
 
 		public OptionParameter(String[] parameters) {
+			this(parameters, false);
+		}
+
+		/**
+		 * Creates an enumerated parameter. The parameters are indexed for constant time matching.
+		 *
+		 * @param parameters possible parameters
+		 * @param ignoreCase whether to match case-insensitively
+		 */
+		public OptionParameter(String[] parameters, boolean ignoreCase) {
+			this(parameters, null, ignoreCase);
+		}
+
+		/**
+		 * Creates an enumerated parameter of the constants of the given enum. Params are converted to the constants.
+		 *
+		 * @param enumType   enum class
+		 * @param ignoreCase whether to match the constant names case-insensitively
+		 */
+		public OptionParameter(Class<? extends Enum<?>> enumType, boolean ignoreCase) {
+			this(Arrays.stream(enumType.getEnumConstants()).map(Enum::name).toArray(String[]::new),
+					enumType.getEnumConstants(), ignoreCase);
+		}
+
+		private OptionParameter(String[] parameters, Object[] constants, boolean ignoreCase) {
+			this.Class = null;
+			this.type = null;
 			this.parameters = parameters;
+			this.parameterSet = new ParameterSet(parameters, ignoreCase);
+			this.constants = constants;
 		}
 
 		/**
@@ -163,30 +430,102 @@ public class HelpOption {
 		 * @return {@code true} if empty. {@code false} if not.
 		 */
 		public boolean isEmpty() {
-			return Class != null && !Class.isBlank() && parameters != null && parameters.length != 0;
+			return (Class == null || Class.isBlank()) && (parameters == null || parameters.length == 0);
 		}
 
 		/**
-		 * Returns whether the given param matches the set Class (if any) or any of the parameters.
+		 * Returns whether the given param matches the set Class (if any) or any of the parameters. Params of classes
+		 * without registered {@link ParameterType} always match.
 		 *
 		 * @param param param to check
 		 * @return {@code true} if classes match or parameters contain param. {@code false} if not.
 		 */
 		public boolean matches(String param) {
 			if (Class != null) {
-				return switch (Class) {
-					case "Byte" -> StringUtil.isByte(param);
-					case "Short" -> StringUtil.isShort(param);
-					case "Integer" -> StringUtil.isInteger(param);
-					case "Long" -> StringUtil.isLong(param);
-					case "Float" -> StringUtil.isFloat(param);
-					case "Double" -> StringUtil.isDouble(param);
-					case "Character" -> StringUtil.isCharacter(param);
-					default -> true;
-				};
+				return type == null || type.matches(param);
+			}
+
+			return parameterSet.indexOf(param) >= 0;
+		}
+
+		/**
+		 * Converts the given param to the set Class. Params of enumerated parameters are converted to the matching enum
+		 * constant or parameter. Params of classes without registered {@link ParameterType} are returned as they are.
+		 * Params of registered classes are converted without validating them again, so they must have {@link
+		 * #matches(String) matched} before.
+		 *
+		 * @param param param to convert
+		 * @return converted param
+		 * @throws IllegalArgumentException if the param is not an enumerated parameter
+		 */
+		public Object convert(String param) throws IllegalArgumentException {
+			if (Class != null) {
+				return type == null ? param : type.convert(param);
+			}
+
+			var index = parameterSet.indexOf(param);
+			if (index < 0) {
+				throw new IllegalArgumentException("Not a parameter: " + param);
 			}
+			return constants == null ? parameterSet.get(index) : constants[index];
+		}
+
+		/**
+		 * @return simple name of the parameter class, {@code null} for enumerated parameters
+		 */
+		String getClassName() {
+			return Class;
+		}
+
+		/**
+		 * @return possible parameters of an enumerated parameter, otherwise an empty array (not copied)
+		 */
+		String[] getParameters() {
+			return parameters == null ? new String[0] : parameters;
+		}
 
-			return Arrays.asList(parameters).contains(param);
+		/**
+		 * @return whether an enumerated parameter is matched case-insensitively
+		 */
+		boolean isIgnoreCase() {
+			return parameterSet != null && parameterSet.isIgnoreCase();
+		}
+
+		/**
+		 * @return length of {@link #toString()}
+		 */
+		int length() {
+			if (Class != null) return Class.length() + 2;
+
+			if (parameters == null || parameters.length == 0) return 0;
+
+			var length = 1 + parameters.length;
+			for (var p : parameters) {
+				length += p.length();
+			}
+			return length;
+		}
+
+		/**
+		 * Appends {@link #toString()} to the given sink.
+		 *
+		 * @param out sink to append to
+		 * @throws IOException if the sink fails
+		 */
+		void appendTo(Appendable out) throws IOException {
+			if (Class != null) {
+				out.append('{').append(Class).append('}');
+				return;
+			}
+
+			if (parameters == null || parameters.length == 0) return;
+
+			out.append('{');
+			for (var i = 0; i < parameters.length; i++) {
+				if (i > 0) out.append(',');
+				out.append(parameters[i]);
+			}
+			out.append('}');
 		}
 
 		@Override
@@ -1,9 +1,13 @@
 package org.joeftiger.jhelp;
 
+import java.lang.invoke.MethodType;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 import static org.joeftiger.jhelp.HelpOption.OptionInvoke;
 import static org.joeftiger.jhelp.HelpOption.OptionParameter;
@@ -13,7 +17,13 @@ public class HelpOptionBuilder {
 	private final List<String> optionInvokes = new ArrayList<>();
 	private Class<?> parameterType;
 	private final List<String> parameters = new ArrayList<>();
+	private boolean ignoreCase;
+	private TypeRegistry typeRegistry = TypeRegistry.getDefault();
 	private Consumer<String> callback;
+	private Consumer<Object> valueCallback;
+	/** type the callback receives, {@code null} for string callbacks */
+	private Class<?> callbackType;
+	private final List<HelpOption> dependencies = new ArrayList<>();
 	private String description = "";
 
 	/**
@@ -32,11 +42,14 @@ public class HelpOptionBuilder {
 	}
 
 	/**
-	 * Sets the parameter type to be displayed if no specific parameters need to be met.
+	 * Sets the parameter type to be displayed if no specific parameters need to be met. Parameters are validated and
+	 * converted by the {@link ParameterType} registered for the type. The constants of an enum type become the possible
+	 * parameters, which are then converted to the constants.
 	 *
 	 * @param type parameter type
 	 * @return this builder
 	 * @see #addParameters(String...)
+	 * @see #setTypeRegistry(TypeRegistry)
 	 */
 	public HelpOptionBuilder setParameterType(Class<?> type) {
 		this.parameterType = type;
@@ -56,6 +69,30 @@ public class HelpOptionBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets whether parameters (and enum constants) are matched case-insensitively. The default is {@code false}.
+	 *
+	 * @param ignoreCase {@code true} to ignore case, {@code false} if not.
+	 * @return this builder
+	 * @see #addParameters(String...)
+	 */
+	public HelpOptionBuilder setIgnoreCase(boolean ignoreCase) {
+		this.ignoreCase = ignoreCase;
+		return this;
+	}
+
+	/**
+	 * Sets the registry to resolve the parameter type in. The default is {@link TypeRegistry#getDefault()}.
+	 *
+	 * @param registry type registry
+	 * @return this builder
+	 * @see #setParameterType(Class)
+	 */
+	public HelpOptionBuilder setTypeRegistry(TypeRegistry registry) {
+		this.typeRegistry = registry;
+		return this;
+	}
+
 	/**
 	 * Sets the description for the option.
 	 *
@@ -75,24 +112,157 @@ public class HelpOptionBuilder {
 	 */
 	public HelpOptionBuilder setCallback(Consumer<String> callback) {
 		this.callback = callback;
+		this.valueCallback = null;
+		this.callbackType = null;
 		return this;
 	}
 
 	/**
-	 * Builds the option according to previously set parameters.
+	 * Sets a typed callback function for the option. Parameters are converted once (see {@link
+	 * HelpOption#parseValue(String)}) before being passed to the callback. If neither a parameter type nor parameters
+	 * are set, the given type becomes the parameter type. {@link #build()} checks that the parameters are converted to
+	 * the given type.
+	 *
+	 * @param type     parameter type
+	 * @param callback callback function
+	 * @param <T>      parameter type
+	 * @return this builder
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> HelpOptionBuilder setCallback(Class<T> type, Consumer<T> callback) {
+		defaultParameterType(type);
+		this.callback = null;
+		this.valueCallback = v -> callback.accept((T) v); // checked in build(), not type.cast(v) which fails for primitives
+		this.callbackType = type;
+		return this;
+	}
+
+	/**
+	 * Sets an {@code int} callback function for the option. Parameters are only validated when parsing and are
+	 * parsed straight into the {@code int} when dispatched, without boxing. If neither a parameter type nor parameters
+	 * are set, {@link Integer} becomes the parameter type. {@link #build()} checks that the parameters are converted to
+	 * {@link Integer}.
+	 *
+	 * @param callback callback function
+	 * @return this builder
+	 */
+	public HelpOptionBuilder setIntCallback(IntConsumer callback) {
+		defaultParameterType(Integer.class);
+		this.callback = s -> callback.accept(Integer.parseInt(s));
+		this.valueCallback = null;
+		this.callbackType = int.class;
+		return this;
+	}
+
+	/**
+	 * Sets a {@code long} callback function for the option. Parameters are only validated when parsing and are
+	 * parsed straight into the {@code long} when dispatched, without boxing. If neither a parameter type nor parameters
+	 * are set, {@link Long} becomes the parameter type. {@link #build()} checks that the parameters are converted to
+	 * {@link Long}.
+	 *
+	 * @param callback callback function
+	 * @return this builder
+	 */
+	public HelpOptionBuilder setLongCallback(LongConsumer callback) {
+		defaultParameterType(Long.class);
+		this.callback = s -> callback.accept(Long.parseLong(s));
+		this.valueCallback = null;
+		this.callbackType = long.class;
+		return this;
+	}
+
+	/**
+	 * Sets a {@code double} callback function for the option. Parameters are only validated when parsing and are
+	 * parsed straight into the {@code double} when dispatched, without boxing. If neither a parameter type nor parameters
+	 * are set, {@link Double} becomes the parameter type. {@link #build()} checks that the parameters are converted to
+	 * {@link Double}.
+	 *
+	 * @param callback callback function
+	 * @return this builder
+	 */
+	public HelpOptionBuilder setDoubleCallback(DoubleConsumer callback) {
+		defaultParameterType(Double.class);
+		this.callback = s -> callback.accept(Double.parseDouble(s));
+		this.valueCallback = null;
+		this.callbackType = double.class;
+		return this;
+	}
+
+	/**
+	 * Adds options whose callbacks must complete before the callback of this option starts when a {@link ParseResult}
+	 * is dispatched asynchronously. Dependencies that were not matched are ignored.
+	 *
+	 * @param options options this option depends on
+	 * @return this builder
+	 * @see ParseResult#dispatchAsync(java.util.concurrent.Executor)
+	 */
+	public HelpOptionBuilder addDependencies(HelpOption... options) {
+		Collections.addAll(dependencies, options);
+		return this;
+	}
+
+	private void defaultParameterType(Class<?> type) {
+		if (parameterType == null && parameters.isEmpty()) {
+			parameterType = type;
+		}
+	}
+
+	/**
+	 * Builds the option according to previously set parameters. The parameter type is resolved in the type registry
+	 * once.
 	 *
 	 * @return option
+	 * @throws IllegalArgumentException if a typed or primitive callback cannot receive the converted parameters
 	 */
-	public HelpOption build() {
+	@SuppressWarnings("unchecked")
+	public HelpOption build() throws IllegalArgumentException {
 		var invoke = new OptionInvoke(optionInvokes.toArray(String[]::new));
 
 		OptionParameter parameter;
-		if (parameterType != null) {
-			parameter = new OptionParameter(parameterType);
+		if (parameterType != null && parameterType.isEnum()) {
+			parameter = new OptionParameter((Class<? extends Enum<?>>) parameterType, ignoreCase);
+		} else if (parameterType != null) {
+			parameter = new OptionParameter(parameterType, typeRegistry.get(parameterType));
 		} else {
-			parameter = new OptionParameter(this.parameters.toArray(String[]::new));
+			parameter = new OptionParameter(this.parameters.toArray(String[]::new), ignoreCase);
+		}
+
+		if (callbackType != null) {
+			var valueType = convertedType();
+			if (!boxed(callbackType).isAssignableFrom(valueType)) {
+				throw new IllegalArgumentException("Callback of type " + callbackType.getSimpleName()
+						+ " cannot receive parameters of type " + valueType.getSimpleName());
+			}
 		}
 
-		return new HelpOption(invoke, parameter, description, callback);
+		var stringCallback = callback;
+		if (stringCallback == null && valueCallback != null) {
+			var typedCallback = valueCallback;
+			stringCallback = s -> {
+				if (!parameter.matches(s)) {
+					throw new IllegalArgumentException("Invalid parameter: " + s);
+				}
+				typedCallback.accept(parameter.convert(s));
+			};
+		}
+
+		var primitiveCallback = callbackType != null && valueCallback == null;
+		return new HelpOption(invoke, parameter, description, stringCallback, valueCallback, primitiveCallback, dependencies.toArray(HelpOption[]::new));
+	}
+
+	/**
+	 * @return class of the parameters after conversion: the enum type, the type of the registered {@link
+	 * ParameterType} or {@link String} for enumerated parameters and unregistered types
+	 */
+	private Class<?> convertedType() {
+		if (parameterType == null) return String.class;
+		if (parameterType.isEnum()) return parameterType;
+
+		var type = typeRegistry.get(parameterType);
+		return type == null ? String.class : type.getType();
+	}
+
+	private static Class<?> boxed(Class<?> type) {
+		return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
 	}
 }
@@ -0,0 +1,103 @@
+package org.joeftiger.jhelp;
+
+import java.io.IOException;
+
+/**
+ * Renders a {@link JavaHelp} to an alternate format. {@link JavaHelp#renderTo(HelpRenderer, Appendable)} walks the
+ * model once and calls, in this order:
+ * <ol>
+ *     <li>{@link #startHelp(HelpUsage, Appendable)}</li>
+ *     <li>{@link #startOptions(int, Appendable)}, {@link #option(HelpOption, int, Appendable)} for every option and
+ *     {@link #endOptions(Appendable)}</li>
+ *     <li>{@link #startCommands(int, Appendable)}, {@link #command(String, String, int, Appendable)} for every
+ *     subcommand and {@link #endCommands(Appendable)}</li>
+ *     <li>{@link #endHelp(Appendable)}</li>
+ * </ol>
+ * The sections are announced even if empty. Renderers should stream to the sink instead of building their output
+ * first, escaping text as it is written so no intermediate Strings are built, and keep no state between calls so they
+ * can be shared.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ * @see TroffRenderer
+ * @see MarkdownRenderer
+ * @see JsonRenderer
+ */
+public interface HelpRenderer {
+
+	/**
+	 * Starts the help.
+	 *
+	 * @param usage usage of the help. may be {@code null}
+	 * @param out   sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	void startHelp(HelpUsage usage, Appendable out) throws IOException;
+
+	/**
+	 * Starts the options section.
+	 *
+	 * @param count number of options
+	 * @param out   sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	default void startOptions(int count, Appendable out) throws IOException {
+	}
+
+	/**
+	 * Renders an option.
+	 *
+	 * @param option option
+	 * @param index  index of the option in the section
+	 * @param out    sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	void option(HelpOption option, int index, Appendable out) throws IOException;
+
+	/**
+	 * Ends the options section.
+	 *
+	 * @param out sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	default void endOptions(Appendable out) throws IOException {
+	}
+
+	/**
+	 * Starts the commands section.
+	 *
+	 * @param count number of subcommands
+	 * @param out   sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	default void startCommands(int count, Appendable out) throws IOException {
+	}
+
+	/**
+	 * Renders a subcommand, without building it.
+	 *
+	 * @param name        name of the command
+	 * @param description description of the command. may be {@code null}
+	 * @param index       index of the command in the section
+	 * @param out         sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	void command(String name, String description, int index, Appendable out) throws IOException;
+
+	/**
+	 * Ends the commands section.
+	 *
+	 * @param out sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	default void endCommands(Appendable out) throws IOException {
+	}
+
+	/**
+	 * Ends the help.
+	 *
+	 * @param out sink to append to
+	 * @throws IOException if the sink fails
+	 */
+	void endHelp(Appendable out) throws IOException;
+}
@@ -0,0 +1,186 @@
+package org.joeftiger.jhelp;
+
+import java.io.BufferedReader;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An interactive shell around a {@link CompiledHelp}. Every line read is split into arguments like a response file
+ * (see {@link JavaHelp#allowResponseFiles(boolean)}), parsed and dispatched. The following lines are commands of the
+ * shell itself:
+ * <ul>
+ *     <li>{@code help} prints the whole help</li>
+ *     <li>{@code help <invoke>} prints the help of a single option</li>
+ *     <li>{@code exit} or {@code quit} ends the shell</li>
+ * </ul>
+ * Every line is executed as read. Completion is up to the line editor reading the lines, which can call {@link
+ * #complete(String)} when the user asks for it (e.g. on a tab key press). Completions come from indexes built once per
+ * shell: the invoke trie of the help and sorted arrays of the enumerated parameters of every option, so completing
+ * takes time proportional to the prefix length and the number of completions.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public class HelpShell {
+	private final CompiledHelp help;
+	private final Map<HelpOption, String[]> parameters = new HashMap<>();
+	private String prompt = "> ";
+
+	/**
+	 * Creates a new shell and indexes the enumerated parameters of the options.
+	 *
+	 * @param help help to parse lines with
+	 */
+	public HelpShell(CompiledHelp help) {
+		this.help = help;
+
+		for (var option : help.getOptions()) {
+			var parameter = option.getOptionParameter();
+			if (parameter == null || parameter.getParameters().length == 0) continue;
+
+			var sorted = parameter.getParameters().clone();
+			Arrays.sort(sorted, order(parameter.isIgnoreCase()));
+			parameters.put(option, sorted);
+		}
+	}
+
+	/**
+	 * Sets the prompt printed before reading a line. The default is {@code "> "}.
+	 *
+	 * @param prompt prompt
+	 * @return this shell
+	 */
+	public HelpShell setPrompt(String prompt) {
+		this.prompt = prompt;
+		return this;
+	}
+
+	/**
+	 * Returns the completions of the last word of the given line. Words starting with {@code '-'} complete to invokes,
+	 * words following an option with enumerated parameters complete to its parameters. This is the completion hook for
+	 * a line editor: pass it the line up to the cursor, and an empty last word (a line ending with whitespace) to list
+	 * all completions.
+	 *
+	 * @param line line typed so far
+	 * @return completions of the last word in alphabetical order
+	 */
+	public List<String> complete(String line) {
+		var end = line.length();
+		var start = end;
+		while (start > 0 && !Character.isWhitespace(line.charAt(start - 1))) {
+			start--;
+		}
+		var word = line.substring(start, end);
+
+		var previousEnd = start;
+		while (previousEnd > 0 && Character.isWhitespace(line.charAt(previousEnd - 1))) {
+			previousEnd--;
+		}
+		var previousStart = previousEnd;
+		while (previousStart > 0 && !Character.isWhitespace(line.charAt(previousStart - 1))) {
+			previousStart--;
+		}
+		var previous = line.substring(previousStart, previousEnd);
+
+		if (help.hasOptionInvoke(previous)) {
+			var option = help.getOptionByInvoke(previous);
+			if (option.hasParameter()) {
+				return completeParameter(option, word);
+			}
+		}
+		if (word.startsWith("-")) {
+			return help.complete(word);
+		}
+		return List.of();
+	}
+
+	private List<String> completeParameter(HelpOption option, String prefix) {
+		var sorted = parameters.get(option);
+		if (sorted == null) return List.of();
+
+		var ignoreCase = option.getOptionParameter().isIgnoreCase();
+		var from = Arrays.binarySearch(sorted, prefix, order(ignoreCase));
+		if (from < 0) from = -from - 1;
+
+		var completions = new ArrayList<String>();
+		for (var i = from; i < sorted.length && sorted[i].regionMatches(ignoreCase, 0, prefix, 0, prefix.length()); i++) {
+			completions.add(sorted[i]);
+		}
+		return completions;
+	}
+
+	private static Comparator<String> order(boolean ignoreCase) {
+		return ignoreCase ? String.CASE_INSENSITIVE_ORDER : Comparator.naturalOrder();
+	}
+
+	/**
+	 * Reads and executes lines until the input ends or {@code exit} is read. Errors of a line are printed and do not end
+	 * the shell.
+	 *
+	 * @param in  input to read lines from
+	 * @param out output to print prompts, help and errors to
+	 * @throws IOException if the input or output fails
+	 */
+	public void run(BufferedReader in, Appendable out) throws IOException {
+		while (true) {
+			out.append(prompt);
+			if (out instanceof Flushable) {
+				((Flushable) out).flush();
+			}
+
+			var line = in.readLine();
+			if (line == null || !execute(line, out)) return;
+		}
+	}
+
+	/**
+	 * Executes a single line.
+	 *
+	 * @param line line to execute
+	 * @param out  output to print help and errors to
+	 * @return {@code false} if the shell should end
+	 * @throws IOException if the output fails
+	 */
+	public boolean execute(String line, Appendable out) throws IOException {
+		var args = new ArrayList<String>();
+		try {
+			ArgsFile.read(line, args::add);
+		} catch (IllegalArgumentException e) {
+			out.append("Error: ").append(e.getMessage()).append('\n');
+			return true;
+		}
+
+		if (args.size() == 1 && (args.get(0).equals("exit") || args.get(0).equals("quit"))) {
+			return false;
+		}
+		if (!args.isEmpty() && args.get(0).equals("help")) {
+			if (args.size() == 1) {
+				help.renderTo(out);
+				out.append('\n');
+			}
+			for (var i = 1; i < args.size(); i++) {
+				try {
+					out.append(help.getOptionHelp(args.get(i))).append('\n');
+				} catch (NoSuchElementException e) {
+					out.append("Error: ").append(e.getMessage()).append('\n');
+				}
+			}
+			return true;
+		}
+
+		try {
+			help.parse(args.toArray(String[]::new)).dispatch();
+		} catch (RuntimeException e) {
+			// invalid arguments as well as failing callbacks
+			out.append("Error: ").append(e.getMessage() != null ? e.getMessage() : e.toString()).append('\n');
+		}
+		return true;
+	}
+}
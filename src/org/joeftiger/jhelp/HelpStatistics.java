@@ -0,0 +1,187 @@
+package org.joeftiger.jhelp;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link HelpListener} counting every phase, overall and per option. Counting is thread-safe and lock-free.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public class HelpStatistics implements HelpListener {
+	private final Timer lookups = new Timer();
+	private final Timer validations = new Timer();
+	private final Timer callbacks = new Timer();
+	private final Timer targetCallbacks = new Timer();
+	private final Timer renders = new Timer();
+	private final Map<HelpOption, Timer> optionLookups = new ConcurrentHashMap<>();
+	private final Map<HelpOption, Timer> optionValidations = new ConcurrentHashMap<>();
+	private final Map<HelpOption, Timer> optionCallbacks = new ConcurrentHashMap<>();
+
+	@Override
+	public void onLookup(String input, HelpOption option, long nanos) {
+		lookups.record(nanos, option == null);
+		if (option != null) {
+			optionLookups.computeIfAbsent(option, o -> new Timer()).record(nanos, false);
+		}
+	}
+
+	@Override
+	public void onValidation(HelpOption option, String parameter, boolean valid, long nanos) {
+		validations.record(nanos, !valid);
+		optionValidations.computeIfAbsent(option, o -> new Timer()).record(nanos, !valid);
+	}
+
+	@Override
+	public void onCallback(HelpOption option, long nanos, RuntimeException failure) {
+		callbacks.record(nanos, failure != null);
+		optionCallbacks.computeIfAbsent(option, o -> new Timer()).record(nanos, failure != null);
+	}
+
+	@Override
+	public void onTargetCallback(HelpTarget target, long nanos, RuntimeException failure) {
+		targetCallbacks.record(nanos, failure != null);
+	}
+
+	@Override
+	public void onRender(long nanos) {
+		renders.record(nanos, false);
+	}
+
+	/**
+	 * @return all invoke lookups; failures are unknown invokes
+	 */
+	public Timer getLookups() {
+		return lookups;
+	}
+
+	/**
+	 * @param option option
+	 * @return successful lookups of the given option
+	 */
+	public Timer getLookups(HelpOption option) {
+		return optionLookups.getOrDefault(option, Timer.EMPTY);
+	}
+
+	/**
+	 * @return all parameter validations; failures are invalid parameters
+	 */
+	public Timer getValidations() {
+		return validations;
+	}
+
+	/**
+	 * @param option option
+	 * @return parameter validations of the given option
+	 */
+	public Timer getValidations(HelpOption option) {
+		return optionValidations.getOrDefault(option, Timer.EMPTY);
+	}
+
+	/**
+	 * @return all option callbacks; failures are callbacks that threw
+	 */
+	public Timer getCallbacks() {
+		return callbacks;
+	}
+
+	/**
+	 * @param option option
+	 * @return callbacks of the given option
+	 */
+	public Timer getCallbacks(HelpOption option) {
+		return optionCallbacks.getOrDefault(option, Timer.EMPTY);
+	}
+
+	/**
+	 * @return all target callbacks; failures are callbacks that threw
+	 */
+	public Timer getTargetCallbacks() {
+		return targetCallbacks;
+	}
+
+	/**
+	 * @return all renderings
+	 */
+	public Timer getRenders() {
+		return renders;
+	}
+
+	/**
+	 * Counts of a phase with a histogram of their durations. Bucket {@code i} of the histogram counts durations of
+	 * {@code [2^i, 2^(i+1))} nanoseconds (bucket {@code 0} also counts {@code 0}).
+	 */
+	public static final class Timer {
+		private static final Timer EMPTY = new Timer();
+
+		private final LongAdder count = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLongArray histogram = new AtomicLongArray(64);
+
+		private void record(long nanos, boolean failed) {
+			count.increment();
+			if (failed) failures.increment();
+			totalNanos.add(nanos);
+			histogram.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+		}
+
+		/**
+		 * @return number of recorded events
+		 */
+		public long getCount() {
+			return count.sum();
+		}
+
+		/**
+		 * @return number of failed events
+		 */
+		public long getFailures() {
+			return failures.sum();
+		}
+
+		/**
+		 * @return summed duration in nanoseconds
+		 */
+		public long getTotalNanos() {
+			return totalNanos.sum();
+		}
+
+		/**
+		 * @return number of events per power of two nanoseconds
+		 */
+		public long[] getHistogram() {
+			var buckets = new long[histogram.length()];
+			for (var i = 0; i < buckets.length; i++) {
+				buckets[i] = histogram.get(i);
+			}
+			return buckets;
+		}
+
+		/**
+		 * Returns an upper bound of the given percentile, as precise as the histogram.
+		 *
+		 * @param percentile percentile in {@code [0, 100]}
+		 * @return upper bound of the bucket containing the percentile in nanoseconds, {@code 0} if nothing was recorded
+		 */
+		public long getPercentileNanos(double percentile) {
+			var buckets = getHistogram();
+			var total = 0L;
+			for (var b : buckets) total += b;
+			if (total == 0) return 0;
+
+			var rank = (long) Math.ceil(percentile / 100 * total);
+			var seen = 0L;
+			for (var i = 0; i < buckets.length; i++) {
+				seen += buckets[i];
+				if (seen >= Math.max(1, rank)) {
+					return i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+				}
+			}
+			return Long.MAX_VALUE;
+		}
+	}
+}
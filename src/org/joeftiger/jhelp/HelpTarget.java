@@ -1,5 +1,6 @@
 package org.joeftiger.jhelp;
 
+import java.io.IOException;
 import java.util.function.Consumer;
 
 public class HelpTarget {
@@ -27,6 +28,13 @@ public class HelpTarget {
 		this.callback = callback;
 	}
 
+	/**
+	 * @return target name
+	 */
+	public String getName() {
+		return target;
+	}
+
 	/**
 	 * Returns whether this target has a callback.
 	 *
@@ -55,4 +63,15 @@ public class HelpTarget {
 	public String toString() {
 		return "<" + target + ">";
 	}
+
+	/**
+	 * Appends this HelpTarget as a beautified String to the given sink.
+	 *
+	 * @param out sink to append to
+	 * @throws IOException if the sink fails
+	 * @see #toString()
+	 */
+	public void renderTo(Appendable out) throws IOException {
+		out.append('<').append(target).append('>');
+	}
 }
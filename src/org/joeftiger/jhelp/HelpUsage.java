@@ -1,5 +1,6 @@
 package org.joeftiger.jhelp;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -10,6 +11,7 @@ public class HelpUsage {
 	private final List<HelpTarget> targets = new ArrayList<>();
 
 	private int index = 0;
+	private int modCount = 0;
 
 	/**
 	 * @return program name
@@ -26,6 +28,7 @@ public class HelpUsage {
 	 */
 	public HelpUsage setProgramName(String programName) {
 		this.programName = programName == null ? "null" : programName;
+		modCount++;
 		return this;
 	}
 
@@ -39,6 +42,7 @@ public class HelpUsage {
 		for (var t : targets) {
 			this.targets.add(new HelpTarget(t));
 		}
+		modCount++;
 		return this;
 	}
 
@@ -53,6 +57,7 @@ public class HelpUsage {
 	 */
 	public HelpUsage addTargets(HelpTarget... targets) {
 		Collections.addAll(this.targets, targets);
+		modCount++;
 		return this;
 	}
 
@@ -116,6 +121,15 @@ public class HelpUsage {
 		return this;
 	}
 
+	/**
+	 * Returns the number of modifications of the printable representation, to detect outdated renderings.
+	 *
+	 * @return modification count
+	 */
+	int getModCount() {
+		return modCount;
+	}
+
 	/**
 	 * Returns this HelpUsage as a beautified String to print.
 	 *
@@ -131,4 +145,20 @@ public class HelpUsage {
 
 		return out;
 	}
+
+	/**
+	 * Appends this HelpUsage as a beautified String to the given sink.
+	 *
+	 * @param out sink to append to
+	 * @throws IOException if the sink fails
+	 * @see #toString()
+	 */
+	public void renderTo(Appendable out) throws IOException {
+		out.append("USAGE:\n ").append(programName).append(" [options]");
+
+		for (var t : targets) {
+			out.append(' ');
+			t.renderTo(out);
+		}
+	}
 }
@@ -0,0 +1,239 @@
+package org.joeftiger.jhelp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A trie over the invoke aliases of options. Besides exact lookups it resolves unambiguous prefixes in time
+ * proportional to the prefix length, completes prefixes and finds the aliases closest to a mistyped input by a bounded
+ * edit distance search.
+ * <p>
+ * Lookups never modify the trie, so a trie that is no longer added to may be read by multiple threads.
+ */
+class InvokeTrie {
+	/** default maximum edit distance of suggestions */
+	static final int SUGGESTION_DISTANCE = 2;
+	/** default maximum number of suggestions */
+	static final int SUGGESTION_LIMIT = 3;
+
+	private final Node root = new Node();
+	/** options of the single character aliases {@code "-c"} by {@code c}, for ASCII characters */
+	private final HelpOption[] shortOptions = new HelpOption[128];
+
+	/**
+	 * Adds the given alias. An alias added twice is overwritten.
+	 *
+	 * @param invoke invoke alias
+	 * @param option option of the alias
+	 */
+	void add(String invoke, HelpOption option) {
+		var node = root;
+		node.share(option);
+		for (var i = 0; i < invoke.length(); i++) {
+			node = node.childOrCreate(invoke.charAt(i));
+			node.share(option);
+		}
+		node.invoke = invoke;
+		node.option = option;
+
+		if (invoke.length() == 2 && invoke.charAt(0) == '-' && invoke.charAt(1) < shortOptions.length) {
+			shortOptions[invoke.charAt(1)] = option;
+		}
+	}
+
+	/**
+	 * Returns the option with the alias {@code "-c"} for an ASCII character {@code c} in constant time.
+	 *
+	 * @param c alias character
+	 * @return matching option or {@code null} (always for non-ASCII characters)
+	 */
+	HelpOption getShort(char c) {
+		return c < shortOptions.length ? shortOptions[c] : null;
+	}
+
+	/**
+	 * Returns the option with exactly the given alias.
+	 *
+	 * @param s     text containing the alias
+	 * @param start start of the alias (inclusive)
+	 * @param end   end of the alias (exclusive)
+	 * @return matching option or {@code null}
+	 */
+	HelpOption get(CharSequence s, int start, int end) {
+		var node = find(s, start, end);
+		return node == null ? null : node.option;
+	}
+
+	/**
+	 * Returns the option with exactly the given alias or, if there is none, the only option having aliases starting
+	 * with the given prefix.
+	 *
+	 * @param s     text containing the prefix
+	 * @param start start of the prefix (inclusive)
+	 * @param end   end of the prefix (exclusive)
+	 * @return matching option or {@code null} if none or multiple options match
+	 */
+	HelpOption getByPrefix(CharSequence s, int start, int end) {
+		var node = find(s, start, end);
+		if (node == null) return null;
+		if (node.option != null) return node.option;
+		return node.ambiguous ? null : node.shared;
+	}
+
+	/**
+	 * Returns all aliases starting with the given prefix in alphabetical order.
+	 *
+	 * @param prefix alias prefix
+	 * @return matching aliases
+	 */
+	List<String> complete(CharSequence prefix) {
+		var aliases = new ArrayList<String>();
+		var node = find(prefix, 0, prefix.length());
+		if (node != null) {
+			node.collect(aliases);
+		}
+		return aliases;
+	}
+
+	/**
+	 * Returns the aliases within the given edit distance (insertions, deletions and substitutions) of the input,
+	 * closest first and alphabetically among equally close ones.
+	 *
+	 * @param input       mistyped input
+	 * @param maxDistance maximum edit distance
+	 * @param limit       maximum number of aliases
+	 * @return closest aliases
+	 */
+	String[] suggest(String input, int maxDistance, int limit) {
+		var found = new ArrayList<Suggestion>();
+
+		var firstRow = new int[input.length() + 1];
+		for (var i = 0; i < firstRow.length; i++) {
+			firstRow[i] = i;
+		}
+		for (var i = 0; i < root.size; i++) {
+			suggest(root.children[i], root.keys[i], input, firstRow, maxDistance, found);
+		}
+
+		found.sort((a, b) -> a.distance != b.distance
+				? Integer.compare(a.distance, b.distance)
+				: a.invoke.compareTo(b.invoke));
+
+		return found.stream()
+				.limit(limit)
+				.map(s -> s.invoke)
+				.toArray(String[]::new);
+	}
+
+	/**
+	 * Describes an unknown invoke, suggesting the closest aliases.
+	 *
+	 * @param input unknown invoke
+	 * @return error message
+	 */
+	String describeUnknown(String input) {
+		if (input == null) return "Unknown option: null";
+
+		var suggestions = suggest(input, SUGGESTION_DISTANCE, SUGGESTION_LIMIT);
+		if (suggestions.length == 0) {
+			return "Unknown option: " + input;
+		}
+		return "Unknown option: " + input + " (did you mean " + String.join(", ", suggestions) + "?)";
+	}
+
+	private static void suggest(Node node, char c, String input, int[] previous, int maxDistance, List<Suggestion> found) {
+		var row = new int[previous.length];
+		row[0] = previous[0] + 1;
+
+		var min = row[0];
+		for (var i = 1; i < row.length; i++) {
+			var replace = previous[i - 1] + (input.charAt(i - 1) == c ? 0 : 1);
+			row[i] = Math.min(replace, Math.min(row[i - 1], previous[i]) + 1);
+			min = Math.min(min, row[i]);
+		}
+
+		var distance = row[row.length - 1];
+		if (node.invoke != null && distance <= maxDistance) {
+			found.add(new Suggestion(node.invoke, distance));
+		}
+
+		if (min <= maxDistance) {
+			for (var i = 0; i < node.size; i++) {
+				suggest(node.children[i], node.keys[i], input, row, maxDistance, found);
+			}
+		}
+	}
+
+	private Node find(CharSequence s, int start, int end) {
+		var node = root;
+		for (var i = start; i < end && node != null; i++) {
+			node = node.child(s.charAt(i));
+		}
+		return node;
+	}
+
+	private static final class Suggestion {
+		private final String invoke;
+		private final int distance;
+
+		private Suggestion(String invoke, int distance) {
+			this.invoke = invoke;
+			this.distance = distance;
+		}
+	}
+
+	private static final class Node {
+		private char[] keys = new char[0];
+		private Node[] children = new Node[0];
+		private int size;
+
+		/** alias ending at this node */
+		private String invoke;
+		/** option of {@link #invoke} */
+		private HelpOption option;
+		/** option of all aliases below this node, unless {@link #ambiguous} */
+		private HelpOption shared;
+		private boolean ambiguous;
+
+		private void share(HelpOption option) {
+			if (shared == null) {
+				shared = option;
+			} else if (shared != option) {
+				ambiguous = true;
+			}
+		}
+
+		private Node child(char c) {
+			var i = Arrays.binarySearch(keys, 0, size, c);
+			return i < 0 ? null : children[i];
+		}
+
+		private Node childOrCreate(char c) {
+			var i = Arrays.binarySearch(keys, 0, size, c);
+			if (i >= 0) return children[i];
+
+			i = -i - 1;
+			if (size == keys.length) {
+				var capacity = Math.max(2, 2 * size);
+				keys = Arrays.copyOf(keys, capacity);
+				children = Arrays.copyOf(children, capacity);
+			}
+			System.arraycopy(keys, i, keys, i + 1, size - i);
+			System.arraycopy(children, i, children, i + 1, size - i);
+
+			var node = new Node();
+			keys[i] = c;
+			children[i] = node;
+			size++;
+			return node;
+		}
+
+		private void collect(List<String> aliases) {
+			if (invoke != null) aliases.add(invoke);
+			for (var i = 0; i < size; i++) {
+				children[i].collect(aliases);
+			}
+		}
+	}
+}
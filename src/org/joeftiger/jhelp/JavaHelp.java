@@ -1,23 +1,56 @@
 package org.joeftiger.jhelp;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * A help consists of a {@link HelpUsage} and multiple {@link HelpOption}s (created with the help of {@link
- * HelpOptionBuilder}). It can be queried for {@link #getOptionByInvoke(String)}.
+ * HelpOptionBuilder}). It can be queried for {@link #getOptionByInvoke(String)} or {@link #parse(String...)} whole
+ * command lines. Subcommands with their own JavaHelp can be nested with {@link #addCommand(String, String, Supplier)}.
  *
  * @author Julius Oeftiger
  * @version 0.1
  */
 public class JavaHelp {
+	/**
+	 * Default of {@link #setParallelThreshold(int)}. Conservative, as the fork-join overhead and the number of cores
+	 * vary between machines; measure with {@code RenderBenchmark -p parallel=false,true} to tune it.
+	 */
+	static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+
 	private HelpUsage usage = new HelpUsage();
 	private final List<HelpOption> options = new ArrayList<>();
+	private final Map<String, HelpOption> invokeIndex = new HashMap<>();
+	private final InvokeTrie invokeTrie = new InvokeTrie();
+	private final Map<String, HelpCommand> commands = new LinkedHashMap<>();
+
 	private boolean sortAlphabetically;
+	private boolean parallel;
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	private boolean abbreviations;
+	private boolean responseFiles;
+	private boolean combinedOptions;
+	private HelpListener listener;
 
 	private int indent = 2;
 	private int descriptionIndent = 24;
 	private int paragraphLimit = 1024;
 
+	/** rendered option blocks for the current layout, in order of {@link #options} */
+	private final List<String> blocks = new ArrayList<>();
+	private int blocksLength;
+	/** {@link #blocks} in alphabetical order with their number of occurrences, {@code null} if not sorted yet */
+	private TreeMap<String, Integer> sortedBlocks;
+	private String rendered;
+	private int renderedUsageModCount;
+	/** snapshot returned by {@link #compile()} until this JavaHelp changes, {@code null} if outdated */
+	private CompiledHelp compiled;
+	private int compiledUsageModCount;
+
 	/**
 	 * Sets the USAGE section
 	 *
@@ -26,20 +59,115 @@ public class JavaHelp {
 	 */
 	public JavaHelp setUsage(HelpUsage usage) {
 		this.usage = usage;
+		rendered = null;
+		compiled = null;
 		return this;
 	}
 
 	/**
-	 * Adds the given options to the OPTIONS section.
+	 * @return USAGE section (may be {@code null})
+	 */
+	HelpUsage getUsage() {
+		return usage;
+	}
+
+	/**
+	 * @return options in order of registration (unmodifiable)
+	 */
+	List<HelpOption> getOptions() {
+		return Collections.unmodifiableList(options);
+	}
+
+	/**
+	 * @return subcommands in order of registration, not built (unmodifiable)
+	 */
+	Collection<HelpCommand> getCommands() {
+		return Collections.unmodifiableCollection(commands.values());
+	}
+
+	/**
+	 * Adds the given options to the OPTIONS section. Their invokes are indexed for {@link #getOptionByInvoke(String)}.
+	 * If any invoke is already registered (or given twice), no option is added at all.
 	 *
 	 * @param options options to add
 	 * @return this JavaHelp
+	 * @throws IllegalArgumentException if an invoke alias is registered more than once
 	 */
-	public JavaHelp addOptions(HelpOption... options) {
+	public JavaHelp addOptions(HelpOption... options) throws IllegalArgumentException {
+		var added = new HashMap<String, HelpOption>();
+		for (var o : options) {
+			var invoke = o.getOptionInvoke();
+			if (invoke == null) continue;
+
+			for (var i : invoke.getInvokes()) {
+				if (invokeIndex.containsKey(i) || added.put(i, o) != null) {
+					throw new IllegalArgumentException("Duplicate option invoke: " + i);
+				}
+			}
+		}
+
+		invokeIndex.putAll(added);
+		added.forEach(invokeTrie::add);
 		Collections.addAll(this.options, options);
+		if (options.length > 0) {
+			rendered = null;
+			compiled = null;
+		}
 		return this;
 	}
 
+	/**
+	 * Adds a subcommand to the COMMANDS section. The JavaHelp of the command is built by the given supplier only when
+	 * the command is resolved by {@link #getCommand(String)} or by parsing a command line containing its name, and then
+	 * kept; parsing compiles it once, so changes after the first parse are not seen. Rendering this JavaHelp only uses
+	 * the name and description. So the cost of building commands depends on the
+	 * commands actually invoked, not on the number of commands registered.
+	 *
+	 * @param name        name of the command
+	 * @param description description of the command. may be {@code null}
+	 * @param supplier    builds the JavaHelp of the command
+	 * @return this JavaHelp
+	 * @throws IllegalArgumentException if the name is blank, starts with {@code '-'} or is already registered
+	 */
+	public JavaHelp addCommand(String name, String description, Supplier<JavaHelp> supplier) throws IllegalArgumentException {
+		if (name == null || name.isBlank() || name.startsWith("-")) {
+			throw new IllegalArgumentException("Invalid command name: " + name);
+		}
+		if (commands.containsKey(name)) {
+			throw new IllegalArgumentException("Duplicate command: " + name);
+		}
+
+		commands.put(name, new HelpCommand(name, description, Objects.requireNonNull(supplier)));
+		rendered = null;
+		compiled = null;
+		return this;
+	}
+
+	/**
+	 * Returns whether a subcommand with the given name is registered. Does not build the command.
+	 *
+	 * @param name command name
+	 * @return {@code true} if registered. {@code false} if not.
+	 */
+	public boolean hasCommand(String name) {
+		return commands.containsKey(name);
+	}
+
+	/**
+	 * Returns the JavaHelp of the subcommand with the given name, building it on first use.
+	 *
+	 * @param name command name
+	 * @return JavaHelp of the command
+	 * @throws NoSuchElementException if no command has the given name
+	 */
+	public JavaHelp getCommand(String name) throws NoSuchElementException {
+		var command = commands.get(name);
+		if (command == null) {
+			throw new NoSuchElementException("Unknown command: " + name);
+		}
+		return command.get();
+	}
+
 	/**
 	 * Whether the sort the options alphabetically for {@link #toString()}.
 	 *
@@ -47,7 +175,96 @@ public class JavaHelp {
 	 * @return this JavaHelp
 	 */
 	public JavaHelp sortOptions(boolean sort) {
-		sortAlphabetically = sort;
+		if (sortAlphabetically != sort) {
+			sortAlphabetically = sort;
+			sortedBlocks = null;
+			rendered = null;
+			compiled = null;
+		}
+		return this;
+	}
+
+	/**
+	 * Whether to format option blocks in parallel on the common fork-join pool. Only used if at least {@link
+	 * #setParallelThreshold(int) the threshold} of blocks need to be formatted at once, smaller helps are always
+	 * formatted sequentially. The output is the same in both modes.
+	 *
+	 * @param parallel {@code true} to render in parallel, {@code false} if not.
+	 * @return this JavaHelp
+	 */
+	public JavaHelp renderInParallel(boolean parallel) {
+		this.parallel = parallel;
+		return this;
+	}
+
+	/**
+	 * Sets the minimum number of option blocks to format at once for {@link #renderInParallel(boolean) rendering in
+	 * parallel} to be used. If the given threshold is below {@code 1}, it will be clamped to {@code 1}. The default is
+	 * {@value #DEFAULT_PARALLEL_THRESHOLD}.
+	 *
+	 * @param threshold minimum number of blocks
+	 * @return this JavaHelp
+	 */
+	public JavaHelp setParallelThreshold(int threshold) {
+		parallelThreshold = Math.max(1, threshold);
+		return this;
+	}
+
+	/**
+	 * Whether {@link #parse(String...)} accepts unambiguous prefixes of invokes (e.g. {@code --verb} for {@code
+	 * --verbose}) for inputs starting with {@code '-'}.
+	 *
+	 * @param allow {@code true} to accept prefixes, {@code false} if not.
+	 * @return this JavaHelp
+	 * @see #getOptionByPrefix(String)
+	 */
+	public JavaHelp allowAbbreviations(boolean allow) {
+		abbreviations = allow;
+		compiled = null;
+		return this;
+	}
+
+	/**
+	 * Whether {@link #parse(String...)} replaces {@code @file} inputs by the arguments read from the file, like the
+	 * {@code java} launcher does. Arguments are separated by whitespace and may be quoted; a {@code '#'} starts a
+	 * comment. An input starting with {@code @@} is passed on with a single {@code '@'}, and inputs after {@code "--"}
+	 * are never expanded.
+	 *
+	 * @param allow {@code true} to expand response files, {@code false} if not.
+	 * @return this JavaHelp
+	 */
+	public JavaHelp allowResponseFiles(boolean allow) {
+		responseFiles = allow;
+		compiled = null;
+		return this;
+	}
+
+	/**
+	 * Whether {@link #parse(String...)} accepts combined options: clusters of single character invokes like {@code -xvf}
+	 * for {@code -x -v -f}, where an option with parameter takes the rest of the cluster ({@code -n5}) or else the next
+	 * input, and {@code --invoke=value} inputs. Exact invokes always take precedence, and inputs that are not entirely
+	 * made of known invokes (like {@code -12}) are bound to targets as before.
+	 *
+	 * @param allow {@code true} to accept combined options, {@code false} if not.
+	 * @return this JavaHelp
+	 */
+	public JavaHelp allowCombinedOptions(boolean allow) {
+		combinedOptions = allow;
+		compiled = null;
+		return this;
+	}
+
+	/**
+	 * Sets the listener receiving measurements of lookups, validations, callbacks and renderings. Snapshots and parse
+	 * results created afterwards report to the same listener. Without a listener nothing is measured.
+	 *
+	 * @param listener listener or {@code null} to remove it
+	 * @return this JavaHelp
+	 * @see HelpStatistics
+	 */
+	public JavaHelp setListener(HelpListener listener) {
+		this.listener = listener;
+		compiled = null;
 		return this;
 	}
 
@@ -58,13 +275,7 @@ public class JavaHelp {
 	 * @return {@code true} if found. {@code false} if not.
 	 */
 	public boolean hasOptionInvoke(String input) {
-		for (var o : options) {
-			if (o.matchesInvoke(input)) {
-				return true;
-			}
-		}
-
-		return false;
+		return invokeIndex.containsKey(input);
 	}
 
 	/**
@@ -73,49 +284,321 @@ public class JavaHelp {
 	 *
 	 * @param input invoke to search for
 	 * @return matching option
-	 * @throws NoSuchElementException if no option matches the given inp ut
+	 * @throws NoSuchElementException if no option matches the given input
 	 */
 	public HelpOption getOptionByInvoke(String input) throws NoSuchElementException {
-		for (var o : options) {
-			if (o.matchesInvoke(input)) {
-				return o;
-			}
+		HelpOption option;
+		if (listener == null) {
+			option = invokeIndex.get(input);
+		} else {
+			var start = System.nanoTime();
+			option = invokeIndex.get(input);
+			listener.onLookup(input, option, System.nanoTime() - start);
+		}
+		if (option == null) {
+			throw new NoSuchElementException(invokeTrie.describeUnknown(input));
+		}
+		return option;
+	}
+
+	/**
+	 * Returns the option exactly matching the given input invoke or, if there is none, the only option with an invoke
+	 * starting with the input. The lookup takes time proportional to the input length.
+	 *
+	 * @param input invoke or invoke prefix to search for
+	 * @return matching option
+	 * @throws NoSuchElementException if no option or multiple options match the given input
+	 */
+	public HelpOption getOptionByPrefix(String input) throws NoSuchElementException {
+		var option = input == null ? null : invokeTrie.getByPrefix(input, 0, input.length());
+		if (option == null) {
+			throw new NoSuchElementException(invokeTrie.describeUnknown(input));
+		}
+		return option;
+	}
+
+	/**
+	 * Returns the invokes closest to the given (mistyped) input, at most two edits away.
+	 *
+	 * @param input input to search for
+	 * @return closest invokes, closest first
+	 * @see #suggestInvokes(String, int)
+	 */
+	public String[] suggestInvokes(String input) {
+		return suggestInvokes(input, InvokeTrie.SUGGESTION_DISTANCE);
+	}
+
+	/**
+	 * Returns the invokes within the given edit distance (insertions, deletions and substitutions) of the input.
+	 *
+	 * @param input       input to search for
+	 * @param maxDistance maximum edit distance
+	 * @return closest invokes, closest first and alphabetically among equally close ones
+	 */
+	public String[] suggestInvokes(String input, int maxDistance) {
+		return invokeTrie.suggest(input, maxDistance, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Parses the given command line arguments in a single pass. Option invokes are resolved and their parameters
+	 * validated, every other input is bound to the next target of the usage. No callback is called; use {@link
+	 * ParseResult#dispatch()} for that.
+	 * <p>
+	 * If an input before any bound target names a subcommand, that command is built and compiled if necessary and parses
+	 * the remaining inputs, reporting to the listener of this JavaHelp if set; its result is available by {@link
+	 * ParseResult#getCommandResult()}. A command whose supplier fails fails the parse.
+	 *
+	 * @param args command line arguments
+	 * @return immutable parse result
+	 * @throws IllegalArgumentException if a parameter is missing or invalid, if there are more inputs than targets, if a
+	 *                                  response file cannot be read or if a subcommand cannot be built (also within a
+	 *                                  subcommand)
+	 */
+	public ParseResult parse(String... args) throws IllegalArgumentException {
+		var targets = usage == null ? new HelpTarget[0] : usage.getTargets();
+		var parser = new ArgumentParser(invokeIndex, invokeTrie, targets, commands, abbreviations, responseFiles, combinedOptions, listener);
+
+		var result = parser.parse(args);
+		if (result == null) {
+			throw new IllegalArgumentException(parser.getError());
 		}
+		return result;
+	}
+
+	/**
+	 * Parses every given command line against {@link #compile() the snapshot} of this JavaHelp, reporting invalid ones
+	 * by their outcome instead of throwing.
+	 *
+	 * @param commandLines command lines to parse
+	 * @return outcome of every command line, in order
+	 * @see CompiledHelp#parseAll(Iterable)
+	 */
+	public List<ParseOutcome> parseAll(Iterable<String[]> commandLines) {
+		return compile().parseAll(commandLines);
+	}
 
-		throw new NoSuchElementException();
+	/**
+	 * Lazily parses every command line of the given stream, in parallel if the stream is parallel. The stream parses
+	 * against {@link #compile() the snapshot} of this JavaHelp at this call.
+	 *
+	 * @param commandLines command lines to parse
+	 * @return stream of the outcome of every command line
+	 * @see CompiledHelp#parseAll(Stream)
+	 */
+	public Stream<ParseOutcome> parseAll(Stream<String[]> commandLines) {
+		return compile().parseAll(commandLines);
 	}
 
 	/**
-	 * Returns this JavaHelp as a beautified String to print.
+	 * Compiles this JavaHelp into an immutable snapshot. The snapshot holds the current options, usage targets and
+	 * layout and may be shared between threads; later changes to this JavaHelp do not affect it. A rendering cached by
+	 * {@link #toString()} is reused, otherwise the snapshot renders itself when first printed. The same snapshot is
+	 * returned until this JavaHelp or its usage is modified. Subcommands are
+	 * shared with this JavaHelp and still built and compiled on first use, so their JavaHelps should not be modified
+	 * afterwards.
+	 *
+	 * @return immutable snapshot
+	 */
+	public CompiledHelp compile() {
+		var usageModCount = usage == null ? 0 : usage.getModCount();
+		if (compiled != null && compiledUsageModCount == usageModCount) {
+			return compiled;
+		}
+
+		var targets = usage == null ? new HelpTarget[0] : usage.getTargets();
+		var usageText = usage == null ? "" : usage.toString();
+		var rendered = isRendered();
+		compiled = new CompiledHelp(options, invokeIndex, targets, commands, abbreviations, responseFiles, combinedOptions, listener,
+				usageText, sortAlphabetically, indent, descriptionIndent, paragraphLimit, rendered ? blocks : null, rendered ? this.rendered : null);
+		compiledUsageModCount = usageModCount;
+		return compiled;
+	}
+
+	/**
+	 * Returns this JavaHelp as a beautified String to print. The result is cached until the usage, the options, the
+	 * sorting or the layout change. The blocks of the options are cached until the layout changes, so after adding
+	 * options only these are formatted (and inserted into the sorted blocks).
 	 *
 	 * @return printable representation
 	 */
 	@Override
 	public String toString() {
-		setOptionIndent(indent);
-		setDescriptionIndent(descriptionIndent);
-		setParagraphLimit(paragraphLimit);
+		if (!isRendered()) {
+			var start = listener == null ? 0 : System.nanoTime();
+			updateBlocks();
+			var sb = new StringBuilder(blocksLength + options.size() + 256);
+			try {
+				render(sb, true);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e); // StringBuilder does not throw
+			}
+			rendered = sb.toString();
+			renderedUsageModCount = usage == null ? 0 : usage.getModCount();
+			if (listener != null) {
+				listener.onRender(System.nanoTime() - start);
+			}
+		}
+		return rendered;
+	}
 
-		var sb = new StringBuilder();
+	/**
+	 * Appends this JavaHelp as a beautified String to the given sink. A cached representation is appended as is,
+	 * otherwise the usage and the options are streamed to the sink one by one: option blocks cached by {@link
+	 * #toString()} are appended, the others are formatted straight into the sink and not cached. Sorted options need
+	 * their blocks to be compared, so these are rendered and cached.
+	 *
+	 * @param out sink to append to
+	 * @throws IOException if the sink fails
+	 * @see #toString()
+	 */
+	public void renderTo(Appendable out) throws IOException {
+		if (isRendered()) {
+			out.append(rendered);
+		} else {
+			render(out, false);
+		}
+	}
+
+	/**
+	 * Renders this JavaHelp with the given renderer, e.g. as man page, Markdown or JSON. The options are passed in order
+	 * of registration (regardless of {@link #sortOptions(boolean)}) and subcommands are not built. Nothing is cached.
+	 *
+	 * @param renderer renderer of the format
+	 * @param out      sink to append to
+	 * @throws IOException if the sink fails
+	 * @see TroffRenderer
+	 * @see MarkdownRenderer
+	 * @see JsonRenderer
+	 */
+	public void renderTo(HelpRenderer renderer, Appendable out) throws IOException {
+		renderer.startHelp(usage, out);
 
+		renderer.startOptions(options.size(), out);
+		for (var i = 0; i < options.size(); i++) {
+			renderer.option(options.get(i), i, out);
+		}
+		renderer.endOptions(out);
+
+		renderer.startCommands(commands.size(), out);
+		var i = 0;
+		for (var command : commands.values()) {
+			renderer.command(command.getName(), command.getDescription(), i++, out);
+		}
+		renderer.endCommands(out);
+
+		renderer.endHelp(out);
+	}
+
+	/**
+	 * @return whether {@link #rendered} is up to date
+	 */
+	private boolean isRendered() {
+		return rendered != null && renderedUsageModCount == (usage == null ? 0 : usage.getModCount());
+	}
+
+	/**
+	 * Renders the usage, options and commands for the current layout.
+	 *
+	 * @param out   sink to append to
+	 * @param cache whether to render and cache the blocks of all options, else options without cached block are
+	 *              formatted into the sink
+	 * @throws IOException if the sink fails
+	 */
+	private void render(Appendable out, boolean cache) throws IOException {
 		if (usage != null) {
-			sb.append(usage);
+			usage.renderTo(out);
 		}
 
 		if (!options.isEmpty()) {
-			var opts = options.stream()
-					.map(i -> i.toString(indent, descriptionIndent, paragraphLimit))
+			out.append("\n\n")
+					.append("OPTIONS:")
+					.append("\n");
+
+			var first = true;
+			if (sortAlphabetically) {
+				updateBlocks();
+				for (var entry : sortedBlocks.entrySet()) {
+					for (var i = 0; i < entry.getValue(); i++) {
+						if (!first) out.append('\n');
+						out.append(entry.getKey());
+						first = false;
+					}
+				}
+			} else if (cache) {
+				updateBlocks();
+				for (var block : blocks) {
+					if (!first) out.append('\n');
+					out.append(block);
+					first = false;
+				}
+			} else {
+				for (var i = 0; i < options.size(); i++) {
+					if (i > 0) out.append('\n');
+					if (i < blocks.size()) {
+						out.append(blocks.get(i));
+					} else {
+						options.get(i).renderTo(out, indent, descriptionIndent, paragraphLimit);
+					}
+				}
+			}
+		}
+
+		if (!commands.isEmpty()) {
+			out.append("\n\n")
+					.append("COMMANDS:")
+					.append("\n");
+
+			var first = true;
+			for (var command : commands.values()) {
+				if (!first) out.append('\n');
+				command.renderTo(out, indent, descriptionIndent, paragraphLimit);
+				first = false;
+			}
+		}
+	}
+
+	/**
+	 * Renders the blocks of options added since the last update (in parallel if enabled and above the threshold) and
+	 * inserts them into the sorted blocks if sorting.
+	 */
+	private void updateBlocks() {
+		var from = blocks.size();
+		String[] parallelBlocks = null;
+		if (parallel && options.size() - from >= parallelThreshold) {
+			parallelBlocks = IntStream.range(from, options.size())
+					.parallel()
+					.mapToObj(i -> options.get(i).toString(indent, descriptionIndent, paragraphLimit))
 					.toArray(String[]::new);
+		}
 
-			if (sortAlphabetically) Arrays.sort(opts);
+		for (var i = from; i < options.size(); i++) {
+			var block = parallelBlocks != null
+					? parallelBlocks[i - from]
+					: options.get(i).toString(indent, descriptionIndent, paragraphLimit);
+			blocks.add(block);
+			blocksLength += block.length();
+			if (sortedBlocks != null) {
+				sortedBlocks.merge(block, 1, Integer::sum);
+			}
+		}
 
-			sb.append("\n\n")
-					.append("OPTIONS:")
-					.append("\n")
-					.append(String.join("\n", opts));
+		if (sortAlphabetically && sortedBlocks == null) {
+			sortedBlocks = new TreeMap<>();
+			for (var block : blocks) {
+				sortedBlocks.merge(block, 1, Integer::sum);
+			}
 		}
+	}
 
-		return sb.toString();
+	/**
+	 * Drops the rendering, all option blocks and the snapshot.
+	 */
+	private void invalidateLayout() {
+		rendered = null;
+		compiled = null;
+		blocks.clear();
+		blocksLength = 0;
+		sortedBlocks = null;
 	}
 
 	/**
@@ -126,19 +609,30 @@ public class JavaHelp {
 	 * @return this JavaHelp
 	 */
 	public JavaHelp setOptionIndent(int indent) {
-		this.indent = Math.max(0, indent);
+		indent = Math.max(0, indent);
+		if (this.indent != indent) {
+			this.indent = indent;
+			invalidateLayout();
+		}
 		return this;
 	}
 
 	/**
 	 * Sets the indent for option descriptions. If the given indent is negative, it will be clamped to {@code 0}. The
-	 * default is {@link #descriptionIndent}.
+	 * default is {@link #descriptionIndent}. The paragraph limit is raised if it falls below the new indent {@code +
+	 * 10}.
 	 *
 	 * @param indent new description indent
 	 * @return this JavaHelp
+	 * @see #setParagraphLimit(int)
 	 */
 	public JavaHelp setDescriptionIndent(int indent) {
-		this.descriptionIndent = Math.max(0, indent);
+		indent = Math.max(0, indent);
+		if (descriptionIndent != indent) {
+			descriptionIndent = indent;
+			paragraphLimit = Math.max(descriptionIndent + 10, paragraphLimit);
+			invalidateLayout();
+		}
 		return this;
 	}
 
@@ -150,7 +644,11 @@ public class JavaHelp {
 	 * @return this JavaHelp
 	 */
 	public JavaHelp setParagraphLimit(int limit) {
-		this.paragraphLimit = Math.max(descriptionIndent + 10, limit);
+		limit = Math.max(descriptionIndent + 10, limit);
+		if (paragraphLimit != limit) {
+			paragraphLimit = limit;
+			invalidateLayout();
+		}
 		return this;
 	}
 }
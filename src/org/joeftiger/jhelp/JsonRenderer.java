@@ -0,0 +1,134 @@
+package org.joeftiger.jhelp;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Renders a help as a single compact JSON object:
+ * <pre>
+ * {"program":"admin","targets":["user"],
+ *  "options":[{"invokes":["-m","--mode"],"values":["read","write"],"description":"access mode"},
+ *             {"invokes":["-n"],"type":"Integer"}],
+ *  "commands":[{"name":"migrate","description":"runs the migrations"}]}
+ * </pre>
+ * {@code "type"} (the simple name of the parameter class) or {@code "values"} (the enumerated parameters) is only
+ * present for options with parameter, {@code "description"} only if not empty.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public class JsonRenderer implements HelpRenderer {
+	private static final String HEX = "0123456789abcdef";
+
+	@Override
+	public void startHelp(HelpUsage usage, Appendable out) throws IOException {
+		out.append("{\"program\":");
+		if (usage == null) {
+			out.append("null,\"targets\":[]");
+			return;
+		}
+
+		appendString(out, usage.getProgramName());
+		out.append(",\"targets\":[");
+		var targets = usage.getTargets();
+		for (var i = 0; i < targets.length; i++) {
+			if (i > 0) out.append(',');
+			appendString(out, targets[i].getName());
+		}
+		out.append(']');
+	}
+
+	@Override
+	public void startOptions(int count, Appendable out) throws IOException {
+		out.append(",\"options\":[");
+	}
+
+	@Override
+	public void option(HelpOption option, int index, Appendable out) throws IOException {
+		if (index > 0) out.append(',');
+		out.append("{\"invokes\":");
+		appendStrings(out, option.getInvokes());
+
+		if (option.hasParameter()) {
+			if (option.getParameterClass() != null) {
+				out.append(",\"type\":");
+				appendString(out, option.getParameterClass());
+			} else {
+				out.append(",\"values\":");
+				appendStrings(out, option.getParameterValues());
+			}
+		}
+		appendDescription(out, option.getDescription());
+		out.append('}');
+	}
+
+	@Override
+	public void endOptions(Appendable out) throws IOException {
+		out.append(']');
+	}
+
+	@Override
+	public void startCommands(int count, Appendable out) throws IOException {
+		out.append(",\"commands\":[");
+	}
+
+	@Override
+	public void command(String name, String description, int index, Appendable out) throws IOException {
+		if (index > 0) out.append(',');
+		out.append("{\"name\":");
+		appendString(out, name);
+		appendDescription(out, description);
+		out.append('}');
+	}
+
+	@Override
+	public void endCommands(Appendable out) throws IOException {
+		out.append(']');
+	}
+
+	@Override
+	public void endHelp(Appendable out) throws IOException {
+		out.append('}');
+	}
+
+	private static void appendDescription(Appendable out, String description) throws IOException {
+		if (description != null && !description.isEmpty()) {
+			out.append(",\"description\":");
+			appendString(out, description);
+		}
+	}
+
+	private static void appendStrings(Appendable out, List<String> strings) throws IOException {
+		out.append('[');
+		for (var i = 0; i < strings.size(); i++) {
+			if (i > 0) out.append(',');
+			appendString(out, strings.get(i));
+		}
+		out.append(']');
+	}
+
+	/**
+	 * Appends the given text as JSON string literal.
+	 */
+	private static void appendString(Appendable out, String text) throws IOException {
+		out.append('"');
+		for (var i = 0; i < text.length(); i++) {
+			var c = text.charAt(i);
+			switch (c) {
+				case '"' -> out.append("\\\"");
+				case '\\' -> out.append("\\\\");
+				case '\n' -> out.append("\\n");
+				case '\r' -> out.append("\\r");
+				case '\t' -> out.append("\\t");
+				default -> {
+					if (c < 0x20) {
+						out.append("\\u00").append(HEX.charAt(c >> 4)).append(HEX.charAt(c & 0xF));
+					} else {
+						out.append(c);
+					}
+				}
+			}
+		}
+		out.append('"');
+	}
+}
@@ -0,0 +1,165 @@
+package org.joeftiger.jhelp;
+
+import java.io.IOException;
+
+/**
+ * Renders a help as Markdown: the program name as heading, the usage as code block and the options and subcommands as
+ * lists. Descriptions are escaped and their whitespace collapsed. Invokes and parameters are written as code spans
+ * delimited by enough backticks for their content.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public class MarkdownRenderer implements HelpRenderer {
+	private static final String SPECIAL = "\\`*_[]<>#|";
+
+	@Override
+	public void startHelp(HelpUsage usage, Appendable out) throws IOException {
+		if (usage == null) return;
+
+		out.append("# ");
+		appendText(out, usage.getProgramName());
+		out.append("\n\n```\n").append(usage.getProgramName()).append(" [options]");
+		for (var target : usage.getTargets()) {
+			out.append(' ');
+			target.renderTo(out);
+		}
+		out.append("\n```\n");
+	}
+
+	@Override
+	public void startOptions(int count, Appendable out) throws IOException {
+		if (count > 0) out.append("\n## Options\n\n");
+	}
+
+	@Override
+	public void option(HelpOption option, int index, Appendable out) throws IOException {
+		out.append("- ");
+		var invokes = option.getInvokes();
+		for (var i = 0; i < invokes.size(); i++) {
+			if (i > 0) out.append(", ");
+			appendCode(out, invokes.get(i));
+		}
+
+		if (option.hasParameter()) {
+			var parameterClass = option.getParameterClass();
+			var values = option.getParameterValues();
+			var backticks = 0;
+			if (parameterClass != null) {
+				backticks = longestBacktickRun(parameterClass);
+			} else {
+				for (var value : values) {
+					backticks = Math.max(backticks, longestBacktickRun(value));
+				}
+			}
+
+			out.append(' ');
+			openCode(out, backticks);
+			out.append('{');
+			if (parameterClass != null) {
+				out.append(parameterClass);
+			} else {
+				for (var i = 0; i < values.size(); i++) {
+					if (i > 0) out.append(',');
+					out.append(values.get(i));
+				}
+			}
+			out.append('}');
+			closeCode(out, backticks);
+		}
+		appendDescription(out, option.getDescription());
+	}
+
+	@Override
+	public void startCommands(int count, Appendable out) throws IOException {
+		if (count > 0) out.append("\n## Commands\n\n");
+	}
+
+	@Override
+	public void command(String name, String description, int index, Appendable out) throws IOException {
+		out.append("- ");
+		appendCode(out, name);
+		appendDescription(out, description);
+	}
+
+	@Override
+	public void endHelp(Appendable out) {
+	}
+
+	/**
+	 * Appends {@code ": description"} if not blank and ends the list item.
+	 */
+	private static void appendDescription(Appendable out, String description) throws IOException {
+		if (description != null && !description.isBlank()) {
+			out.append(": ");
+			appendText(out, description);
+		}
+		out.append('\n');
+	}
+
+	/**
+	 * Appends the given text as code span, delimited by more backticks than it contains in a row.
+	 */
+	private static void appendCode(Appendable out, String code) throws IOException {
+		var backticks = longestBacktickRun(code);
+		openCode(out, backticks);
+		out.append(code);
+		closeCode(out, backticks);
+	}
+
+	/**
+	 * Opens a code span whose content contains at most the given number of backticks in a row. A content with backticks
+	 * is padded with a space, so it may start or end with one.
+	 */
+	private static void openCode(Appendable out, int backticks) throws IOException {
+		for (var i = 0; i <= backticks; i++) {
+			out.append('`');
+		}
+		if (backticks > 0) out.append(' ');
+	}
+
+	/**
+	 * Closes a code span opened by {@link #openCode(Appendable, int)}.
+	 */
+	private static void closeCode(Appendable out, int backticks) throws IOException {
+		if (backticks > 0) out.append(' ');
+		for (var i = 0; i <= backticks; i++) {
+			out.append('`');
+		}
+	}
+
+	/**
+	 * @return length of the longest run of backticks in the given text
+	 */
+	private static int longestBacktickRun(String text) {
+		var longest = 0;
+		var run = 0;
+		for (var i = 0; i < text.length(); i++) {
+			run = text.charAt(i) == '`' ? run + 1 : 0;
+			longest = Math.max(longest, run);
+		}
+		return longest;
+	}
+
+	/**
+	 * Appends the given text with Markdown syntax escaped, whitespace runs collapsed to a single space and leading and
+	 * trailing whitespace removed.
+	 */
+	private static void appendText(Appendable out, String text) throws IOException {
+		var first = true;
+		var space = false;
+		for (var i = 0; i < text.length(); i++) {
+			var c = text.charAt(i);
+			if (Character.isWhitespace(c)) {
+				space = !first;
+				continue;
+			}
+
+			if (space) out.append(' ');
+			if (SPECIAL.indexOf(c) >= 0) out.append('\\');
+			out.append(c);
+			first = false;
+			space = false;
+		}
+	}
+}
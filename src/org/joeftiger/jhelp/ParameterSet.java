@@ -0,0 +1,90 @@
+package org.joeftiger.jhelp;
+
+/**
+ * An immutable open addressing hash set over the allowed values of an enumerated parameter. Lookups run in constant
+ * time and allocate nothing, also when matching case-insensitively (with the semantics of {@link
+ * String#equalsIgnoreCase(String)}).
+ */
+final class ParameterSet {
+	private final String[] values;
+	/** slots holding {@code index + 1} into {@link #values}, {@code 0} if empty */
+	private final int[] table;
+	private final int mask;
+	private final boolean ignoreCase;
+
+	/**
+	 * Indexes the given values. Of equal values only the first one is found.
+	 *
+	 * @param values     allowed values (not copied)
+	 * @param ignoreCase whether to match case-insensitively
+	 */
+	ParameterSet(String[] values, boolean ignoreCase) {
+		this.values = values;
+		this.ignoreCase = ignoreCase;
+
+		// power of two with a load factor of at most 0.5
+		var capacity = Integer.highestOneBit(Math.max(1, values.length) * 2 - 1) << 1;
+		this.table = new int[capacity];
+		this.mask = capacity - 1;
+
+		for (var i = 0; i < values.length; i++) {
+			if (indexOf(values[i]) < 0) {
+				var slot = hash(values[i]) & mask;
+				while (table[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = i + 1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of the value matching the given input.
+	 *
+	 * @param input input to search for
+	 * @return index into the values or {@code -1} if not found
+	 */
+	int indexOf(String input) {
+		if (input == null) return -1;
+
+		var slot = hash(input) & mask;
+		while (table[slot] != 0) {
+			var index = table[slot] - 1;
+			if (ignoreCase ? values[index].equalsIgnoreCase(input) : values[index].equals(input)) {
+				return index;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param index index into the values
+	 * @return value at the index
+	 */
+	String get(int index) {
+		return values[index];
+	}
+
+	/**
+	 * @return whether matching ignores case
+	 */
+	boolean isIgnoreCase() {
+		return ignoreCase;
+	}
+
+	private int hash(String s) {
+		int h;
+		if (ignoreCase) {
+			h = 0;
+			for (var i = 0; i < s.length(); ) {
+				var cp = s.codePointAt(i);
+				h = 31 * h + Character.toLowerCase(Character.toUpperCase(cp));
+				i += Character.charCount(cp);
+			}
+		} else {
+			h = s.hashCode();
+		}
+		return h ^ (h >>> 16);
+	}
+}
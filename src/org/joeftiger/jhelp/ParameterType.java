@@ -0,0 +1,86 @@
+package org.joeftiger.jhelp;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Validation and conversion of option parameters of a specific type. Parameter types are registered in a {@link
+ * TypeRegistry} and resolved once when an option is built.
+ *
+ * @param <T> converted type
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public final class ParameterType<T> {
+	private final Class<T> type;
+	private final Predicate<String> validator;
+	private final Function<String, ? extends T> converter;
+
+	private ParameterType(Class<T> type, Predicate<String> validator, Function<String, ? extends T> converter) {
+		this.type = type;
+		this.validator = validator;
+		this.converter = converter;
+	}
+
+	/**
+	 * Creates a parameter type with a dedicated validator. The converter is only called with validated input.
+	 *
+	 * @param type      converted type
+	 * @param validator validator, never called with {@code null}
+	 * @param converter converter
+	 * @param <T>       converted type
+	 * @return parameter type
+	 */
+	public static <T> ParameterType<T> of(Class<T> type, Predicate<String> validator, Function<String, ? extends T> converter) {
+		return new ParameterType<>(type, validator, converter);
+	}
+
+	/**
+	 * Creates a parameter type that validates by converting. Input is valid if the converter does not throw an {@link
+	 * IllegalArgumentException} (or any other {@link RuntimeException}). Such a type runs the converter twice per valid
+	 * parameter and pays for an exception per invalid one, so prefer a dedicated validator for hot types.
+	 *
+	 * @param type      converted type
+	 * @param converter converter
+	 * @param <T>       converted type
+	 * @return parameter type
+	 */
+	public static <T> ParameterType<T> of(Class<T> type, Function<String, ? extends T> converter) {
+		return new ParameterType<>(type, s -> {
+			try {
+				converter.apply(s);
+				return true;
+			} catch (RuntimeException ignored) {
+				return false;
+			}
+		}, converter);
+	}
+
+	/**
+	 * @return converted type
+	 */
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns whether the given input is a valid parameter of this type.
+	 *
+	 * @param input input to check
+	 * @return {@code true} if valid. {@code false} if not (or {@code null}).
+	 */
+	public boolean matches(String input) {
+		return input != null && validator.test(input);
+	}
+
+	/**
+	 * Converts the given input to this type. The input is not validated again: callers must check it with {@link
+	 * #matches(String)} first, as the converter's behaviour on invalid input is unspecified.
+	 *
+	 * @param input validated input to convert
+	 * @return converted input
+	 */
+	public T convert(String input) {
+		return converter.apply(input);
+	}
+}
@@ -0,0 +1,61 @@
+package org.joeftiger.jhelp;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The outcome of parsing one command line of a batch, see {@link CompiledHelp#parseAll(Iterable)}. It holds either the
+ * {@link ParseResult} or the error message the single {@link CompiledHelp#parse(String...)} would have thrown.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public final class ParseOutcome {
+	private final String[] args;
+	private final ParseResult result;
+	private final String error;
+
+	/**
+	 * @param args   parsed command line arguments
+	 * @param result parse result or {@code null} if the arguments are invalid
+	 * @param error  error message or {@code null} if the arguments are valid
+	 */
+	ParseOutcome(String[] args, ParseResult result, String error) {
+		this.args = args;
+		this.result = result;
+		this.error = error;
+	}
+
+	/**
+	 * @return parsed command line arguments (not copied)
+	 */
+	public String[] getArguments() {
+		return args;
+	}
+
+	/**
+	 * @return {@code true} if the arguments are valid. {@code false} if not.
+	 */
+	public boolean isSuccess() {
+		return result != null;
+	}
+
+	/**
+	 * Returns the parse result.
+	 *
+	 * @return parse result
+	 * @throws NoSuchElementException if the arguments are invalid, with the error as message
+	 */
+	public ParseResult getResult() throws NoSuchElementException {
+		if (result == null) {
+			throw new NoSuchElementException(error);
+		}
+		return result;
+	}
+
+	/**
+	 * @return error message or {@code null} if the arguments are valid
+	 */
+	public String getError() {
+		return error;
+	}
+}
@@ -0,0 +1,361 @@
+package org.joeftiger.jhelp;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The immutable outcome of {@link JavaHelp#parse(String...)}. It holds the matched options with their parameters and
+ * the positional inputs bound to the {@link HelpTarget}s of the usage, both in command line order, and the result of a
+ * subcommand if one was invoked.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public final class ParseResult {
+	private final HelpOption[] options;
+	private final String[] optionValues;
+	private final Object[] parsedValues;
+	private final HelpTarget[] targets;
+	private final String[] targetValues;
+	private final String command;
+	private final ParseResult commandResult;
+	private final HelpListener listener;
+
+	/**
+	 * Creates a new parse result. The arrays are taken over without copying and must not be modified afterwards.
+	 *
+	 * @param options       matched options
+	 * @param optionValues  parameters of the matched options ({@code null} for options without parameter)
+	 * @param parsedValues  converted parameters of the matched options ({@code null} if not converted)
+	 * @param targets       bound targets
+	 * @param targetValues  inputs of the bound targets
+	 * @param command       name of the invoked subcommand. may be {@code null}
+	 * @param commandResult result of the invoked subcommand. may be {@code null}
+	 * @param listener      listener of the callbacks. may be {@code null}
+	 */
+	ParseResult(HelpOption[] options, String[] optionValues, Object[] parsedValues, HelpTarget[] targets, String[] targetValues, String command, ParseResult commandResult, HelpListener listener) {
+		this.options = options;
+		this.optionValues = optionValues;
+		this.parsedValues = parsedValues;
+		this.targets = targets;
+		this.targetValues = targetValues;
+		this.command = command;
+		this.commandResult = commandResult;
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns the number of matched options. An option given multiple times is counted each time.
+	 *
+	 * @return number of matched options
+	 */
+	public int numberOfOptions() {
+		return options.length;
+	}
+
+	/**
+	 * Returns the matched option at the specified position.
+	 *
+	 * @param index index of option
+	 * @return option at the specified position
+	 * @throws IndexOutOfBoundsException if the index is out of range ({@code index < 0 || index >= numberOfOptions()})
+	 */
+	public HelpOption getOption(int index) throws IndexOutOfBoundsException {
+		return options[index];
+	}
+
+	/**
+	 * Returns the parameter of the matched option at the specified position.
+	 *
+	 * @param index index of option
+	 * @return option parameter or {@code null} if the option has no parameter
+	 * @throws IndexOutOfBoundsException if the index is out of range ({@code index < 0 || index >= numberOfOptions()})
+	 */
+	public String getOptionValue(int index) throws IndexOutOfBoundsException {
+		return optionValues[index];
+	}
+
+	/**
+	 * Returns the parameter of the matched option at the specified position, converted to the parameter type of the
+	 * option. Parameters were converted when parsing, except those of options with a primitive callback, which are
+	 * converted (and boxed) on every call.
+	 *
+	 * @param index index of option
+	 * @return converted option parameter or {@code null} if the option has no parameter
+	 * @throws IndexOutOfBoundsException if the index is out of range ({@code index < 0 || index >= numberOfOptions()})
+	 * @see HelpOption#parseValue(String)
+	 */
+	public Object getParsedValue(int index) throws IndexOutOfBoundsException {
+		var value = parsedValues[index];
+		if (value == null && optionValues[index] != null) {
+			// not stored, so the result stays immutable. the parameter was validated when parsing
+			return options[index].convertParameter(optionValues[index]);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns whether the given option was matched at least once.
+	 *
+	 * @param option option to search for
+	 * @return {@code true} if matched. {@code false} if not.
+	 */
+	public boolean hasOption(HelpOption option) {
+		for (var o : options) {
+			if (o == option) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the parameter of the last occurrence of the given option.
+	 *
+	 * @param option option to search for
+	 * @return option parameter or {@code null} if the option has no parameter
+	 * @throws NoSuchElementException if the option was not matched
+	 */
+	public String getValue(HelpOption option) throws NoSuchElementException {
+		for (var i = options.length - 1; i >= 0; i--) {
+			if (options[i] == option) {
+				return optionValues[i];
+			}
+		}
+		throw new NoSuchElementException();
+	}
+
+	/**
+	 * Returns the number of targets that were bound to an input.
+	 *
+	 * @return number of bound targets
+	 */
+	public int numberOfTargets() {
+		return targets.length;
+	}
+
+	/**
+	 * Returns the bound target at the specified position.
+	 *
+	 * @param index index of target
+	 * @return target at the specified position
+	 * @throws IndexOutOfBoundsException if the index is out of range ({@code index < 0 || index >= numberOfTargets()})
+	 */
+	public HelpTarget getTarget(int index) throws IndexOutOfBoundsException {
+		return targets[index];
+	}
+
+	/**
+	 * Returns the input bound to the target at the specified position.
+	 *
+	 * @param index index of target
+	 * @return target input
+	 * @throws IndexOutOfBoundsException if the index is out of range ({@code index < 0 || index >= numberOfTargets()})
+	 */
+	public String getTargetValue(int index) throws IndexOutOfBoundsException {
+		return targetValues[index];
+	}
+
+	/**
+	 * Returns the name of the invoked subcommand.
+	 *
+	 * @return command name or {@code null} if no command was invoked
+	 * @see JavaHelp#addCommand(String, String, java.util.function.Supplier)
+	 */
+	public String getCommand() {
+		return command;
+	}
+
+	/**
+	 * Returns the result of parsing the inputs following the invoked subcommand.
+	 *
+	 * @return result of the command or {@code null} if no command was invoked
+	 */
+	public ParseResult getCommandResult() {
+		return commandResult;
+	}
+
+	/**
+	 * Applies all parameters to the option callbacks and all inputs to the target callbacks. Options are dispatched
+	 * first in command line order, followed by the targets and then by the result of the subcommand. Options and
+	 * targets without a callback are skipped. Typed option callbacks receive the already converted parameters.
+	 *
+	 * @throws IllegalArgumentException if a callback cannot process its parameter
+	 * @see HelpOption#applyToCallback(String)
+	 * @see HelpTarget#call(String)
+	 */
+	public void dispatch() throws IllegalArgumentException {
+		for (var i = 0; i < options.length; i++) {
+			if (options[i].getCallback() != null) {
+				applyOption(i);
+			}
+		}
+		for (var i = 0; i < targets.length; i++) {
+			if (targets[i].hasCallback()) {
+				applyTarget(i);
+			}
+		}
+		if (commandResult != null) {
+			commandResult.dispatch();
+		}
+	}
+
+	private void applyOption(int index) {
+		if (listener == null) {
+			options[index].applyToCallback(optionValues[index], parsedValues[index]);
+			return;
+		}
+
+		var start = System.nanoTime();
+		try {
+			options[index].applyToCallback(optionValues[index], parsedValues[index]);
+		} catch (RuntimeException e) {
+			listener.onCallback(options[index], System.nanoTime() - start, e);
+			throw e;
+		}
+		listener.onCallback(options[index], System.nanoTime() - start, null);
+	}
+
+	private void applyTarget(int index) {
+		if (listener == null) {
+			targets[index].call(targetValues[index]);
+			return;
+		}
+
+		var start = System.nanoTime();
+		try {
+			targets[index].call(targetValues[index]);
+		} catch (RuntimeException e) {
+			listener.onTargetCallback(targets[index], System.nanoTime() - start, e);
+			throw e;
+		}
+		listener.onTargetCallback(targets[index], System.nanoTime() - start, null);
+	}
+
+	/**
+	 * Applies all parameters and inputs to the callbacks like {@link #dispatch()}, but runs independent callbacks
+	 * concurrently on virtual threads if the runtime supports them, or on a new thread each otherwise.
+	 *
+	 * @return future completing once all callbacks finished
+	 * @see #dispatchAsync(Executor)
+	 */
+	public CompletableFuture<Void> dispatchAsync() {
+		return dispatchAsync(DefaultExecutor.INSTANCE);
+	}
+
+	/**
+	 * Applies all parameters and inputs to the callbacks like {@link #dispatch()}, but runs independent callbacks
+	 * concurrently on the given executor:
+	 * <ul>
+	 *     <li>the callbacks of an option given multiple times run one after another in command line order</li>
+	 *     <li>an option's callbacks start after the callbacks of its dependencies completed (see {@link
+	 *     HelpOptionBuilder#addDependencies(HelpOption...)}); those of options depending on a failed callback are
+	 *     skipped</li>
+	 *     <li>target callbacks start once all option callbacks completed</li>
+	 *     <li>the callbacks of a subcommand start once all callbacks of this result completed successfully</li>
+	 * </ul>
+	 * If callbacks fail, the returned future completes exceptionally with the first failure, carrying all others as
+	 * suppressed exceptions.
+	 *
+	 * @param executor executor to run the callbacks on
+	 * @return future completing once all callbacks finished
+	 */
+	public CompletableFuture<Void> dispatchAsync(Executor executor) {
+		var errors = new ConcurrentLinkedQueue<Throwable>();
+		var scheduled = new IdentityHashMap<HelpOption, CompletableFuture<Void>>();
+		for (var option : options) {
+			schedule(option, executor, errors, scheduled);
+		}
+
+		var optionsDone = CompletableFuture.allOf(scheduled.values().toArray(CompletableFuture[]::new));
+		var all = new ArrayList<CompletableFuture<Void>>();
+		all.add(optionsDone);
+		for (var i = 0; i < targets.length; i++) {
+			if (targets[i].hasCallback()) {
+				var index = i;
+				all.add(optionsDone.thenRunAsync(collecting(() -> applyTarget(index), errors), executor));
+			}
+		}
+
+		var done = new CompletableFuture<Void>();
+		CompletableFuture.allOf(all.toArray(CompletableFuture[]::new)).whenComplete((v, t) -> {
+			var first = errors.poll();
+			if (first == null && t == null) {
+				done.complete(null);
+				return;
+			}
+			if (first == null) {
+				// not a callback failure, e.g. the executor rejected a task
+				first = t.getCause() != null ? t.getCause() : t;
+			}
+			for (var e : errors) {
+				first.addSuppressed(e);
+			}
+			done.completeExceptionally(first);
+		});
+		return commandResult == null ? done : done.thenCompose(v -> commandResult.dispatchAsync(executor));
+	}
+
+	private CompletableFuture<Void> schedule(HelpOption option, Executor executor, ConcurrentLinkedQueue<Throwable> errors, Map<HelpOption, CompletableFuture<Void>> scheduled) {
+		var future = scheduled.get(option);
+		if (future != null) return future;
+
+		var dependencies = new ArrayList<CompletableFuture<Void>>();
+		for (var dependency : option.getDependencies()) {
+			if (hasOption(dependency)) {
+				dependencies.add(schedule(dependency, executor, errors, scheduled));
+			}
+		}
+
+		future = CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new));
+		if (option.getCallback() != null) {
+			for (var i = 0; i < options.length; i++) {
+				if (options[i] == option) {
+					var index = i;
+					future = future.thenRunAsync(collecting(() -> applyOption(index), errors), executor);
+				}
+			}
+		}
+		scheduled.put(option, future);
+		return future;
+	}
+
+	private static Runnable collecting(Runnable callback, ConcurrentLinkedQueue<Throwable> errors) {
+		return () -> {
+			try {
+				callback.run();
+			} catch (RuntimeException | Error e) {
+				errors.add(e);
+				throw e;
+			}
+		};
+	}
+
+	/**
+	 * Runs every task on a new virtual thread if supported by the runtime (Java 21 or newer), otherwise on a new
+	 * daemon platform thread. Initialized on first use.
+	 */
+	private static final class DefaultExecutor {
+		private static final Executor INSTANCE = create();
+
+		private static Executor create() {
+			try {
+				var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				return (ExecutorService) factory.invoke(null);
+			} catch (ReflectiveOperationException e) {
+				return task -> {
+					var thread = new Thread(task, "jhelp-dispatch");
+					thread.setDaemon(true);
+					thread.start();
+				};
+			}
+		}
+	}
+}
@@ -1,50 +1,176 @@
 package org.joeftiger.jhelp;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 
 public class StringUtil {
 
+	private static final String SPACES = " ".repeat(64);
+
 	/**
 	 * Splits the given text into multiple lines with given maximum length. This split will conserve words according to
-	 * a "\\s+" regex.
+	 * a "\\s+" regex. Words longer than the maximum length are put on a line of their own.
 	 *
 	 * @param text   text to split
 	 * @param length maximum length per line
 	 * @return text lines
+	 * @see #wrapPreservingWords(CharSequence, int)
 	 */
 	public static String[] splitPreservingWords(String text, int length) {
-		var lines = new ArrayList<>();
-		var words = text.split("\\s+");
+		var bounds = wrapPreservingWords(text, length);
+		var lines = new String[bounds.length / 2];
+
+		for (var i = 0; i < lines.length; i++) {
+			var start = bounds[2 * i];
+			var end = bounds[2 * i + 1];
+			var sb = new StringBuilder(end - start);
+			appendWords(sb, text, start, end);
+			lines[i] = sb.toString();
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Wraps the given text into lines with given maximum length in a single scan, preserving words according to a
+	 * "\\s+" regex. Words longer than the maximum length are put on a line of their own. A line consists of the words in
+	 * its bounds joined by a single space.
+	 *
+	 * @param text   text to wrap
+	 * @param length maximum length per line
+	 * @return line bounds as {@code [start0, end0, start1, end1, ...]} offsets into the text (at least one line)
+	 */
+	public static int[] wrapPreservingWords(CharSequence text, int length) {
+		var bounds = new int[8];
+		var n = 0;
+
+		var lineStart = -1;
+		var lineEnd = 0;
+		var lineLength = 0;
 
-		var line = "";
-		for (var i = 0; i < words.length; i++) {
-			var newLine = line + (i == 0 ? "" : " ") + words[i];
+		var len = text.length();
+		var i = 0;
+		while (true) {
+			while (i < len && isWhitespace(text.charAt(i))) i++;
+			if (i == len) break;
 
-			if (newLine.length() > length) {
-				lines.add(line);
-				line = words[i];
+			var wordStart = i;
+			while (i < len && !isWhitespace(text.charAt(i))) i++;
+			var wordLength = i - wordStart;
+
+			if (lineStart < 0) {
+				lineStart = wordStart;
+				lineLength = wordLength;
+			} else if (lineLength + 1 + wordLength > length) {
+				if (n == bounds.length) bounds = Arrays.copyOf(bounds, 2 * n);
+				bounds[n++] = lineStart;
+				bounds[n++] = lineEnd;
+				lineStart = wordStart;
+				lineLength = wordLength;
 			} else {
-				line = newLine;
+				lineLength += 1 + wordLength;
 			}
+			lineEnd = i;
 		}
 
-		lines.add(line);
+		if (n == bounds.length) bounds = Arrays.copyOf(bounds, n + 2);
+		bounds[n++] = Math.max(0, lineStart);
+		bounds[n++] = lineEnd;
 
-		return lines.toArray(String[]::new);
+		return Arrays.copyOf(bounds, n);
 	}
 
+	/**
+	 * Wraps the given text like {@link #wrapPreservingWords(CharSequence, int)} and streams the lines to the given
+	 * sink. Lines are separated by a line break followed by the given indent.
+	 *
+	 * @param out    sink to append to
+	 * @param text   text to wrap
+	 * @param length maximum length per line
+	 * @param indent indent of every line but the first
+	 * @throws IOException if the sink fails
+	 */
+	public static void appendPreservingWords(Appendable out, CharSequence text, int length, int indent) throws IOException {
+		var bounds = wrapPreservingWords(text, length);
+
+		for (var i = 0; i < bounds.length; i += 2) {
+			if (i > 0) {
+				out.append('\n');
+				appendSpaces(out, indent);
+			}
+			appendWords(out, text, bounds[i], bounds[i + 1]);
+		}
+	}
+
+	/**
+	 * Appends the words of the given text range joined by a single space.
+	 *
+	 * @param out   sink to append to
+	 * @param text  text
+	 * @param start start of the range (inclusive)
+	 * @param end   end of the range (exclusive)
+	 * @throws IOException if the sink fails
+	 */
+	static void appendWords(Appendable out, CharSequence text, int start, int end) throws IOException {
+		var i = start;
+		while (i < end) {
+			var wordStart = i;
+			while (i < end && !isWhitespace(text.charAt(i))) i++;
+			out.append(text, wordStart, i);
+
+			if (i < end) {
+				while (isWhitespace(text.charAt(i))) i++;
+				out.append(' ');
+			}
+		}
+	}
+
+	/**
+	 * Appends the words of the given text range joined by a single space.
+	 *
+	 * @param sb    builder to append to
+	 * @param text  text
+	 * @param start start of the range (inclusive)
+	 * @param end   end of the range (exclusive)
+	 */
+	static void appendWords(StringBuilder sb, CharSequence text, int start, int end) {
+		try {
+			appendWords((Appendable) sb, text, start, end);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e); // StringBuilder does not throw
+		}
+	}
+
+	/**
+	 * @param c character
+	 * @return whether the given character matches the "\\s" regex
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || (c >= '\t' && c <= '\r');
+	}
+
+	/**
+	 * Appends the given number of spaces to the sink without creating intermediate Strings.
+	 *
+	 * @param out   sink to append to
+	 * @param count number of spaces (nothing is appended if not positive)
+	 * @throws IOException if the sink fails
+	 */
+	static void appendSpaces(Appendable out, int count) throws IOException {
+		while (count > 0) {
+			var n = Math.min(count, SPACES.length());
+			out.append(SPACES, 0, n);
+			count -= n;
+		}
+	}
 
 	/**
 	 * @param s string
 	 * @return whether the given string is a byte.
 	 */
 	public static boolean isByte(String s) {
-		try {
-			Byte.parseByte(s);
-			return true;
-		} catch (NumberFormatException | NullPointerException ignored) {
-			return false;
-		}
+		return isIntegral(s, Byte.MIN_VALUE, Byte.MAX_VALUE);
 	}
 
 
@@ -53,12 +179,7 @@ public class StringUtil {
 	 * @return whether the given string is a short.
 	 */
 	public static boolean isShort(String s) {
-		try {
-			Short.parseShort(s);
-			return true;
-		} catch (NumberFormatException | NullPointerException ignored) {
-			return false;
-		}
+		return isIntegral(s, Short.MIN_VALUE, Short.MAX_VALUE);
 	}
 
 
@@ -67,12 +188,7 @@ public class StringUtil {
 	 * @return whether the given string is a integer.
 	 */
 	public static boolean isInteger(String s) {
-		try {
-			Integer.parseInt(s);
-			return true;
-		} catch (NumberFormatException | NullPointerException ignored) {
-			return false;
-		}
+		return isIntegral(s, Integer.MIN_VALUE, Integer.MAX_VALUE);
 	}
 
 
@@ -81,12 +197,7 @@ public class StringUtil {
 	 * @return whether the given string is a long.
 	 */
 	public static boolean isLong(String s) {
-		try {
-			Long.parseLong(s);
-			return true;
-		} catch (NumberFormatException | NullPointerException ignored) {
-			return false;
-		}
+		return isIntegral(s, Long.MIN_VALUE, Long.MAX_VALUE);
 	}
 
 
@@ -95,12 +206,7 @@ public class StringUtil {
 	 * @return whether the given string is a float.
 	 */
 	public static boolean isFloat(String s) {
-		try {
-			Float.parseFloat(s);
-			return true;
-		} catch (NumberFormatException | NullPointerException ignored) {
-			return false;
-		}
+		return isFloatingPoint(s);
 	}
 
 
@@ -109,12 +215,157 @@ public class StringUtil {
 	 * @return whether the given string is a double.
 	 */
 	public static boolean isDouble(String s) {
-		try {
-			Double.parseDouble(s);
-			return true;
-		} catch (NumberFormatException | NullPointerException ignored) {
-			return false;
+		return isFloatingPoint(s);
+	}
+
+	/**
+	 * Returns whether the given string is a radix 10 number in the given range. Accepts exactly what {@link
+	 * Long#parseLong(String)} accepts (including non-ASCII digits) without creating an exception on rejection.
+	 *
+	 * @param s   string
+	 * @param min minimum value (negative)
+	 * @param max maximum value (positive)
+	 * @return whether the given string is a number in {@code [min, max]}
+	 */
+	private static boolean isIntegral(String s, long min, long max) {
+		if (s == null || s.isEmpty()) return false;
+
+		var len = s.length();
+		var i = 0;
+		var limit = -max;
+
+		var first = s.charAt(0);
+		if (first < '0') {
+			if (first == '-') {
+				limit = min;
+			} else if (first != '+') {
+				return false;
+			}
+			if (len == 1) return false;
+			i++;
+		}
+
+		// accumulate negatively like Long.parseLong, as |min| > max
+		var multmin = limit / 10;
+		var result = 0L;
+		while (i < len) {
+			var digit = Character.digit(s.charAt(i++), 10);
+			if (digit < 0 || result < multmin) return false;
+
+			result *= 10;
+			if (result < limit + digit) return false;
+			result -= digit;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the given string is a floating point number according to the grammar of {@link
+	 * Double#valueOf(String)}: leading and trailing whitespace, an optional sign, {@code NaN}, {@code Infinity}, decimal
+	 * or hexadecimal significands with optional (decimal) or mandatory (hexadecimal) exponent and an optional {@code
+	 * fFdD} suffix. No exception is created on rejection.
+	 *
+	 * @param s string
+	 * @return whether the given string is a float or double
+	 */
+	private static boolean isFloatingPoint(String s) {
+		if (s == null) return false;
+
+		// String.trim() semantics
+		var end = s.length();
+		var i = 0;
+		while (i < end && s.charAt(i) <= ' ') i++;
+		while (end > i && s.charAt(end - 1) <= ' ') end--;
+		if (i == end) return false;
+
+		var c = s.charAt(i);
+		if (c == '+' || c == '-') {
+			if (++i == end) return false;
+			c = s.charAt(i);
+		}
+
+		if (c == 'N') return s.startsWith("NaN", i) && i + 3 == end;
+		if (c == 'I') return s.startsWith("Infinity", i) && i + 8 == end;
+
+		if (c == '0' && i + 1 < end && (s.charAt(i + 1) == 'x' || s.charAt(i + 1) == 'X')) {
+			return isHexFloatingPoint(s, i + 2, end);
 		}
+
+		var digits = 0;
+		var dotSeen = false;
+		for (; i < end; i++) {
+			c = s.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits++;
+			} else if (c == '.' && !dotSeen) {
+				dotSeen = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) return false;
+
+		if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+			i = skipExponent(s, i + 1, end);
+			if (i < 0) return false;
+		}
+
+		return isSuffix(s, i, end);
+	}
+
+	/**
+	 * Checks the remainder of a hexadecimal floating point number after its {@code 0x} prefix.
+	 *
+	 * @param s   string
+	 * @param i   start of the significand
+	 * @param end end of the trimmed string
+	 * @return whether the remainder is a valid hexadecimal significand, binary exponent and suffix
+	 */
+	private static boolean isHexFloatingPoint(String s, int i, int end) {
+		var digits = 0;
+		var dotSeen = false;
+		for (; i < end; i++) {
+			var c = s.charAt(i);
+			if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')) {
+				digits++;
+			} else if (c == '.' && !dotSeen) {
+				dotSeen = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0 || i == end || (s.charAt(i) != 'p' && s.charAt(i) != 'P')) return false;
+
+		i = skipExponent(s, i + 1, end);
+		return i >= 0 && isSuffix(s, i, end);
+	}
+
+	/**
+	 * @param s   string
+	 * @param i   start of the exponent (after the exponent indicator)
+	 * @param end end of the trimmed string
+	 * @return index after the exponent or {@code -1} if there are no exponent digits
+	 */
+	private static int skipExponent(String s, int i, int end) {
+		if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+
+		var start = i;
+		while (i < end && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+		return i == start ? -1 : i;
+	}
+
+	/**
+	 * @param s   string
+	 * @param i   current index
+	 * @param end end of the trimmed string
+	 * @return whether the string ends at {@code i} or with a single {@code fFdD} suffix at {@code i}
+	 */
+	private static boolean isSuffix(String s, int i, int end) {
+		if (i == end) return true;
+		if (i + 1 != end) return false;
+
+		var c = s.charAt(i);
+		return c == 'f' || c == 'F' || c == 'd' || c == 'D';
 	}
 
 	/**
@@ -0,0 +1,146 @@
+package org.joeftiger.jhelp;
+
+import java.io.IOException;
+
+/**
+ * Renders a help as a man page in troff format ({@code man(7)} macros), with NAME, SYNOPSIS, OPTIONS and COMMANDS
+ * sections. Text is escaped and its whitespace collapsed.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public class TroffRenderer implements HelpRenderer {
+	private final int section;
+
+	/**
+	 * Creates a renderer for manual section 1 (user commands).
+	 */
+	public TroffRenderer() {
+		this(1);
+	}
+
+	/**
+	 * Creates a renderer for the given manual section.
+	 *
+	 * @param section manual section
+	 */
+	public TroffRenderer(int section) {
+		this.section = section;
+	}
+
+	@Override
+	public void startHelp(HelpUsage usage, Appendable out) throws IOException {
+		var name = usage == null ? "" : usage.getProgramName();
+
+		out.append(".TH \"");
+		for (var i = 0; i < name.length(); i++) {
+			var c = Character.toUpperCase(name.charAt(i));
+			if (c != '"') appendEscaped(out, c);
+		}
+		out.append("\" ").append(Integer.toString(section)).append('\n');
+
+		if (usage == null) return;
+
+		out.append(".SH NAME\n");
+		appendText(out, name);
+		out.append("\n.SH SYNOPSIS\n.B ");
+		appendText(out, name);
+		out.append("\n[\\fIoptions\\fR]");
+		for (var target : usage.getTargets()) {
+			out.append(" \\fI");
+			appendText(out, target.getName());
+			out.append("\\fR");
+		}
+		out.append('\n');
+	}
+
+	@Override
+	public void startOptions(int count, Appendable out) throws IOException {
+		if (count > 0) out.append(".SH OPTIONS\n");
+	}
+
+	@Override
+	public void option(HelpOption option, int index, Appendable out) throws IOException {
+		out.append(".TP\n");
+		var invokes = option.getInvokes();
+		for (var i = 0; i < invokes.size(); i++) {
+			if (i > 0) out.append(", ");
+			out.append("\\fB");
+			appendText(out, invokes.get(i));
+			out.append("\\fR");
+		}
+
+		if (option.hasParameter()) {
+			out.append(" \\fI{");
+			if (option.getParameterClass() != null) {
+				appendText(out, option.getParameterClass());
+			} else {
+				var values = option.getParameterValues();
+				for (var i = 0; i < values.size(); i++) {
+					if (i > 0) out.append(',');
+					appendText(out, values.get(i));
+				}
+			}
+			out.append("}\\fR");
+		}
+		out.append('\n');
+		appendParagraph(out, option.getDescription());
+	}
+
+	@Override
+	public void startCommands(int count, Appendable out) throws IOException {
+		if (count > 0) out.append(".SH COMMANDS\n");
+	}
+
+	@Override
+	public void command(String name, String description, int index, Appendable out) throws IOException {
+		out.append(".TP\n\\fB");
+		appendText(out, name);
+		out.append("\\fR\n");
+		appendParagraph(out, description);
+	}
+
+	@Override
+	public void endHelp(Appendable out) {
+	}
+
+	/**
+	 * Appends the given text as a line of its own, if not blank.
+	 */
+	private static void appendParagraph(Appendable out, String text) throws IOException {
+		if (text == null || text.isBlank()) return;
+
+		appendText(out, text);
+		out.append('\n');
+	}
+
+	/**
+	 * Appends the given text escaped, with whitespace runs collapsed to a single space and leading and trailing
+	 * whitespace removed, so the text never starts a control line.
+	 */
+	private static void appendText(Appendable out, String text) throws IOException {
+		var first = true;
+		var space = false;
+		for (var i = 0; i < text.length(); i++) {
+			var c = text.charAt(i);
+			if (Character.isWhitespace(c)) {
+				space = !first;
+				continue;
+			}
+
+			if (space) out.append(' ');
+			if (first && (c == '.' || c == '\'')) out.append("\\&");
+			appendEscaped(out, c);
+			first = false;
+			space = false;
+		}
+	}
+
+	private static void appendEscaped(Appendable out, char c) throws IOException {
+		switch (c) {
+			case '\\' -> out.append("\\e");
+			case '-' -> out.append("\\-");
+			default -> out.append(c);
+		}
+	}
+}
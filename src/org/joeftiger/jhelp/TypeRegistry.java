@@ -0,0 +1,151 @@
+package org.joeftiger.jhelp;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps parameter classes to their {@link ParameterType}. {@link HelpOptionBuilder#build()} resolves the type of an
+ * option once, so matching and converting parameters needs no further lookups. Parameters of unregistered classes are
+ * accepted as they are.
+ * <p>
+ * The {@link #getDefault() default registry} knows the primitive types and their wrappers, {@link String}, {@link
+ * Boolean}, {@link BigInteger}, {@link BigDecimal}, {@link Path}, {@link File}, {@link URI}, {@link UUID}, {@link
+ * Duration}, {@link Instant}, {@link LocalDate}, {@link LocalTime} and {@link LocalDateTime}. Boolean parameters must be
+ * {@code true} or {@code false} (ignoring case): unlike {@link Boolean#valueOf(String)}, which reads any other input
+ * as {@code false}, other inputs are rejected. The numbers, characters and UUIDs are validated by dedicated scanners,
+ * the other types {@link ParameterType#of(Class, java.util.function.Function) by converting}.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+public final class TypeRegistry {
+	private static final TypeRegistry DEFAULT = new TypeRegistry(null);
+
+	static {
+		DEFAULT.registerPrimitive(Byte.class, byte.class, ParameterType.of(Byte.class, StringUtil::isByte, Byte::valueOf));
+		DEFAULT.registerPrimitive(Short.class, short.class, ParameterType.of(Short.class, StringUtil::isShort, Short::valueOf));
+		DEFAULT.registerPrimitive(Integer.class, int.class, ParameterType.of(Integer.class, StringUtil::isInteger, Integer::valueOf));
+		DEFAULT.registerPrimitive(Long.class, long.class, ParameterType.of(Long.class, StringUtil::isLong, Long::valueOf));
+		DEFAULT.registerPrimitive(Float.class, float.class, ParameterType.of(Float.class, StringUtil::isFloat, Float::valueOf));
+		DEFAULT.registerPrimitive(Double.class, double.class, ParameterType.of(Double.class, StringUtil::isDouble, Double::valueOf));
+		DEFAULT.registerPrimitive(Character.class, char.class, ParameterType.of(Character.class, StringUtil::isCharacter, s -> s.charAt(0)));
+		DEFAULT.registerPrimitive(Boolean.class, boolean.class, ParameterType.of(Boolean.class,
+				s -> s.equalsIgnoreCase("true") || s.equalsIgnoreCase("false"), Boolean::valueOf));
+
+		DEFAULT.register(String.class, ParameterType.of(String.class, s -> true, s -> s));
+		DEFAULT.register(BigInteger.class, ParameterType.of(BigInteger.class, BigInteger::new));
+		DEFAULT.register(BigDecimal.class, ParameterType.of(BigDecimal.class, BigDecimal::new));
+		DEFAULT.register(Path.class, ParameterType.of(Path.class, Path::of));
+		DEFAULT.register(File.class, ParameterType.of(File.class, s -> !s.isEmpty() && s.indexOf('\0') < 0, File::new));
+		DEFAULT.register(URI.class, ParameterType.of(URI.class, URI::create));
+		DEFAULT.register(UUID.class, ParameterType.of(UUID.class, TypeRegistry::isUUID, UUID::fromString));
+		DEFAULT.register(Duration.class, ParameterType.of(Duration.class, Duration::parse));
+		DEFAULT.register(Instant.class, ParameterType.of(Instant.class, Instant::parse));
+		DEFAULT.register(LocalDate.class, ParameterType.of(LocalDate.class, LocalDate::parse));
+		DEFAULT.register(LocalTime.class, ParameterType.of(LocalTime.class, LocalTime::parse));
+		DEFAULT.register(LocalDateTime.class, ParameterType.of(LocalDateTime.class, LocalDateTime::parse));
+	}
+
+	private final TypeRegistry parent;
+	private final Map<Class<?>, ParameterType<?>> types = new ConcurrentHashMap<>();
+	/** {@link #types} by the simple name of their class, the last registration of a simple name wins */
+	private final Map<String, ParameterType<?>> simpleNames = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a registry that falls back to the {@link #getDefault() default registry} for unregistered classes.
+	 */
+	public TypeRegistry() {
+		this(DEFAULT);
+	}
+
+	private TypeRegistry(TypeRegistry parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Returns the default registry. Types registered here are available to all options.
+	 *
+	 * @return default registry
+	 */
+	public static TypeRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Registers the parameter type of the given class, replacing any previous one.
+	 *
+	 * @param type          parameter class
+	 * @param parameterType validation and conversion
+	 * @param <T>           parameter class
+	 * @return this registry
+	 */
+	public <T> TypeRegistry register(Class<T> type, ParameterType<? extends T> parameterType) {
+		types.put(type, parameterType);
+		simpleNames.put(type.getSimpleName(), parameterType);
+		return this;
+	}
+
+	/**
+	 * Returns the parameter type registered for the given class.
+	 *
+	 * @param type parameter class
+	 * @return parameter type or {@code null} if none is registered
+	 */
+	public ParameterType<?> get(Class<?> type) {
+		var parameterType = types.get(type);
+		if (parameterType == null && parent != null) {
+			return parent.get(type);
+		}
+		return parameterType;
+	}
+
+	/**
+	 * Returns the parameter type registered for the class with the given simple name (e.g. {@code "Integer"}). If
+	 * several registered classes have that simple name, the one registered last is returned.
+	 *
+	 * @param simpleName simple class name
+	 * @return parameter type or {@code null} if none is registered
+	 */
+	public ParameterType<?> get(String simpleName) {
+		var parameterType = simpleNames.get(simpleName);
+		if (parameterType == null && parent != null) {
+			return parent.get(simpleName);
+		}
+		return parameterType;
+	}
+
+	private <T> void registerPrimitive(Class<T> wrapper, Class<?> primitive, ParameterType<T> parameterType) {
+		register(wrapper, parameterType);
+		types.put(primitive, parameterType);
+		simpleNames.put(primitive.getSimpleName(), parameterType);
+	}
+
+	/**
+	 * @param s string
+	 * @return whether the given string is a UUID in its canonical 8-4-4-4-12 hexadecimal form
+	 */
+	private static boolean isUUID(String s) {
+		if (s.length() != 36) return false;
+
+		for (var i = 0; i < 36; i++) {
+			var c = s.charAt(i);
+			if (i == 8 || i == 13 || i == 18 || i == 23) {
+				if (c != '-') return false;
+			} else if (Character.digit(c, 16) < 0 || c > 'f') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
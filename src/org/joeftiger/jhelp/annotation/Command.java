@@ -0,0 +1,28 @@
+package org.joeftiger.jhelp.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Optionally configures the help generated for a class with {@link Option} or {@link Target} fields.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@java.lang.annotation.Target(ElementType.TYPE)
+public @interface Command {
+
+	/**
+	 * @return program name of the usage
+	 */
+	String name();
+
+	/**
+	 * @return whether to sort the options alphabetically
+	 */
+	boolean sortOptions() default false;
+}
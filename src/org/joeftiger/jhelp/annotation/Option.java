@@ -0,0 +1,31 @@
+package org.joeftiger.jhelp.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Declares a field (or record component) as option. The {@link OptionProcessor} generates the corresponding {@link
+ * org.joeftiger.jhelp.HelpOption} and binds parsed parameters to the field. Fields of type {@code boolean} or {@link
+ * Boolean} become options without parameter that are set to {@code true}; all others take a parameter of the field
+ * type (see {@link org.joeftiger.jhelp.TypeRegistry}).
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@java.lang.annotation.Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface Option {
+
+	/**
+	 * @return invoke aliases, e.g. {@code {"-h", "--help"}}
+	 */
+	String[] value();
+
+	/**
+	 * @return option description
+	 */
+	String description() default "";
+}
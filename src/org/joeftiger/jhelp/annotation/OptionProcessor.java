@@ -0,0 +1,308 @@
+package org.joeftiger.jhelp.annotation;
+
+import org.joeftiger.jhelp.TypeRegistry;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a {@code <Type>Help} class for every class or record with {@link Option} or {@link Target} fields. The
+ * generated class holds a {@link org.joeftiger.jhelp.CompiledHelp} built at class initialization (its help text is
+ * only rendered when first printed) and binds parsed command lines to the annotated fields without reflection:
+ * <ul>
+ *     <li>{@code help()} returns the compiled help</li>
+ *     <li>{@code bind(Type target, String... args)} assigns the fields of a class</li>
+ *     <li>{@code parse(String... args)} creates a record (unannotated components get their default value)</li>
+ * </ul>
+ * Annotated fields of classes must not be private or final. {@link Option} fields must be boolean (flags), enums or of
+ * a type registered in the {@link TypeRegistry#getDefault() default registry}.
+ * <p>
+ * The generated class builds its options with {@link org.joeftiger.jhelp.HelpOptionBuilder} and compiles them with
+ * {@link org.joeftiger.jhelp.JavaHelp}, so its startup does the same work as help written by hand: only reflection is
+ * avoided, not the builders. Creating options and snapshots directly would need public factories for the package
+ * private parts of {@link org.joeftiger.jhelp.HelpOption} and {@link org.joeftiger.jhelp.CompiledHelp}.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ */
+@SupportedAnnotationTypes({
+		"org.joeftiger.jhelp.annotation.Option",
+		"org.joeftiger.jhelp.annotation.Target",
+		"org.joeftiger.jhelp.annotation.Command"
+})
+public class OptionProcessor extends AbstractProcessor {
+
+	private static final String JHELP = "org.joeftiger.jhelp.";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		var types = new LinkedHashSet<TypeElement>();
+		for (var element : roundEnv.getElementsAnnotatedWith(Option.class)) {
+			types.add((TypeElement) element.getEnclosingElement());
+		}
+		for (var element : roundEnv.getElementsAnnotatedWith(Target.class)) {
+			types.add((TypeElement) element.getEnclosingElement());
+		}
+
+		for (var type : types) {
+			try {
+				generate(type);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return true;
+	}
+
+	private void generate(TypeElement type) throws IOException {
+		var record = type.getKind() == ElementKind.RECORD;
+		var fields = new ArrayList<Element>();
+		for (var element : type.getEnclosedElements()) {
+			if (element.getKind() == ElementKind.FIELD && !element.getModifiers().contains(Modifier.STATIC)) {
+				fields.add(element);
+			}
+		}
+
+		var options = new ArrayList<Element>();
+		var targets = new ArrayList<Element>();
+		for (var field : fields) {
+			var option = field.getAnnotation(Option.class);
+			var target = field.getAnnotation(Target.class);
+			if (option == null && target == null) continue;
+
+			if (option != null && target != null) {
+				error(field, "A field cannot be both @Option and @Target");
+				return;
+			}
+			if (!record && (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL))) {
+				error(field, "Fields annotated with @Option or @Target must not be private or final");
+				return;
+			}
+			if (target != null && !field.asType().toString().equals("java.lang.String")) {
+				error(field, "Fields annotated with @Target must be of type String");
+				return;
+			}
+			if (option != null && !isFlag(field.asType()) && !isBindable(field.asType())) {
+				error(field, "Fields annotated with @Option must be boolean, an enum or of a type registered in the default TypeRegistry: " + field.asType());
+				return;
+			}
+			(option != null ? options : targets).add(field);
+		}
+
+		var elements = processingEnv.getElementUtils();
+		var packageName = elements.getPackageOf(type).getQualifiedName().toString();
+		var typeName = type.getQualifiedName().toString();
+		var helpName = nestedName(type) + "Help";
+
+		var src = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			src.append("package ").append(packageName).append(";\n\n");
+		}
+		src.append("@javax.annotation.processing.Generated(\"").append(OptionProcessor.class.getName()).append("\")\n")
+				.append("public final class ").append(helpName).append(" {\n")
+				.append("\tprivate static final ").append(JHELP).append("HelpOption[] OPTIONS = {\n");
+		for (var option : options) {
+			var annotation = option.getAnnotation(Option.class);
+			src.append("\t\t\tnew ").append(JHELP).append("HelpOptionBuilder()\n")
+					.append("\t\t\t\t\t.addInvokes(");
+			var invokes = annotation.value();
+			for (var i = 0; i < invokes.length; i++) {
+				if (i > 0) src.append(", ");
+				src.append(elements.getConstantExpression(invokes[i]));
+			}
+			src.append(")\n");
+			if (!isFlag(option.asType())) {
+				src.append("\t\t\t\t\t.setParameterType(")
+						.append(processingEnv.getTypeUtils().erasure(option.asType())).append(".class)\n");
+			}
+			src.append("\t\t\t\t\t.setDescription(").append(elements.getConstantExpression(annotation.description())).append(")\n")
+					.append("\t\t\t\t\t.build(),\n");
+		}
+		src.append("\t};\n")
+				.append("\tprivate static final java.util.Map<").append(JHELP).append("HelpOption, Integer> ORDINALS = new java.util.IdentityHashMap<>();\n")
+				.append("\tprivate static final ").append(JHELP).append("CompiledHelp HELP;\n\n")
+				.append("\tstatic {\n")
+				.append("\t\tfor (int i = 0; i < OPTIONS.length; i++) {\n")
+				.append("\t\t\tORDINALS.put(OPTIONS[i], i);\n")
+				.append("\t\t}\n\n")
+				.append("\t\tvar usage = new ").append(JHELP).append("HelpUsage()");
+		var command = type.getAnnotation(Command.class);
+		if (command != null) {
+			src.append(".setProgramName(").append(elements.getConstantExpression(command.name())).append(")");
+		}
+		for (var target : targets) {
+			var name = target.getAnnotation(Target.class).value();
+			if (name.isEmpty()) name = target.getSimpleName().toString();
+			src.append("\n\t\t\t\t.addTargets(").append(elements.getConstantExpression(name)).append(")");
+		}
+		src.append(";\n")
+				.append("\t\tHELP = new ").append(JHELP).append("JavaHelp()\n")
+				.append("\t\t\t\t.setUsage(usage)\n")
+				.append("\t\t\t\t.addOptions(OPTIONS)\n")
+				.append("\t\t\t\t.sortOptions(").append(command != null && command.sortOptions()).append(")\n")
+				.append("\t\t\t\t.compile();\n")
+				.append("\t}\n\n")
+				.append("\tprivate ").append(helpName).append("() {\n")
+				.append("\t}\n\n")
+				.append("\t/**\n")
+				.append("\t * @return help of {@link ").append(typeName).append("}\n")
+				.append("\t */\n")
+				.append("\tpublic static ").append(JHELP).append("CompiledHelp help() {\n")
+				.append("\t\treturn HELP;\n")
+				.append("\t}\n\n");
+
+		if (record) {
+			appendParse(src, type, fields, options, targets);
+		} else {
+			appendBind(src, typeName, options, targets);
+		}
+		src.append("}\n");
+
+		var qualifiedHelpName = packageName.isEmpty() ? helpName : packageName + "." + helpName;
+		try (var writer = processingEnv.getFiler().createSourceFile(qualifiedHelpName, type).openWriter()) {
+			writer.write(src.toString());
+		}
+	}
+
+	private void appendBind(StringBuilder src, String typeName, List<Element> options, List<Element> targets) {
+		src.append("\t/**\n")
+				.append("\t * Parses the given arguments and assigns the annotated fields of the target.\n")
+				.append("\t *\n")
+				.append("\t * @param target object to bind to\n")
+				.append("\t * @param args   command line arguments\n")
+				.append("\t * @throws IllegalArgumentException if the arguments are invalid\n")
+				.append("\t */\n")
+				.append("\tpublic static void bind(").append(typeName).append(" target, String... args) {\n");
+		appendBindings(src, options, targets, "target.");
+		src.append("\t}\n");
+	}
+
+	private void appendParse(StringBuilder src, TypeElement type, List<Element> fields, List<Element> options, List<Element> targets) {
+		var typeName = type.getQualifiedName().toString();
+		src.append("\t/**\n")
+				.append("\t * Parses the given arguments into a new record.\n")
+				.append("\t *\n")
+				.append("\t * @param args command line arguments\n")
+				.append("\t * @return parsed record\n")
+				.append("\t * @throws IllegalArgumentException if the arguments are invalid\n")
+				.append("\t */\n")
+				.append("\tpublic static ").append(typeName).append(" parse(String... args) {\n");
+		for (var field : fields) {
+			src.append("\t\t").append(field.asType()).append(' ').append(field.getSimpleName())
+					.append(" = ").append(defaultValue(field.asType())).append(";\n");
+		}
+		appendBindings(src, options, targets, "");
+		src.append("\t\treturn new ").append(typeName).append('(');
+		for (var i = 0; i < fields.size(); i++) {
+			if (i > 0) src.append(", ");
+			src.append(fields.get(i).getSimpleName());
+		}
+		src.append(");\n")
+				.append("\t}\n");
+	}
+
+	private void appendBindings(StringBuilder src, List<Element> options, List<Element> targets, String prefix) {
+		src.append("\t\tvar result = HELP.parse(args);\n")
+				.append("\t\tfor (int i = 0; i < result.numberOfOptions(); i++) {\n")
+				.append("\t\t\tswitch (ORDINALS.get(result.getOption(i))) {\n");
+		for (var i = 0; i < options.size(); i++) {
+			var option = options.get(i);
+			src.append("\t\t\t\tcase ").append(i).append(" -> ").append(prefix).append(option.getSimpleName()).append(" = ");
+			if (isFlag(option.asType())) {
+				src.append("true;\n");
+			} else {
+				src.append('(').append(boxed(option.asType())).append(") result.getParsedValue(i);\n");
+			}
+		}
+		src.append("\t\t\t}\n")
+				.append("\t\t}\n");
+
+		for (var i = 0; i < targets.size(); i++) {
+			src.append("\t\tif (result.numberOfTargets() > ").append(i).append(") {\n")
+					.append("\t\t\t").append(prefix).append(targets.get(i).getSimpleName())
+					.append(" = result.getTargetValue(").append(i).append(");\n")
+					.append("\t\t}\n");
+		}
+	}
+
+	private boolean isFlag(TypeMirror type) {
+		return type.getKind() == TypeKind.BOOLEAN || type.toString().equals("java.lang.Boolean");
+	}
+
+	/**
+	 * Returns whether parsed values of the given type can be assigned: enums and the types of the {@link
+	 * TypeRegistry#getDefault() default registry}. Other types would be parsed as String.
+	 */
+	private boolean isBindable(TypeMirror type) {
+		var erasure = processingEnv.getTypeUtils().erasure(type);
+		String name;
+		if (erasure.getKind().isPrimitive()) {
+			name = boxed(erasure);
+		} else if (erasure.getKind() == TypeKind.DECLARED) {
+			var element = (TypeElement) ((DeclaredType) erasure).asElement();
+			if (element.getKind() == ElementKind.ENUM) return true;
+			name = processingEnv.getElementUtils().getBinaryName(element).toString();
+		} else {
+			return false;
+		}
+
+		try {
+			var loaded = Class.forName(name, false, OptionProcessor.class.getClassLoader());
+			return TypeRegistry.getDefault().get(loaded) != null;
+		} catch (ClassNotFoundException e) {
+			return false; // classes being compiled are never registered by default
+		}
+	}
+
+	private String boxed(TypeMirror type) {
+		var types = processingEnv.getTypeUtils();
+		if (type.getKind().isPrimitive()) {
+			return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+		}
+		return type.toString();
+	}
+
+	private static String defaultValue(TypeMirror type) {
+		return switch (type.getKind()) {
+			case BOOLEAN -> "false";
+			case CHAR -> "'\\0'";
+			case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE -> "0";
+			default -> "null";
+		};
+	}
+
+	private static String nestedName(TypeElement type) {
+		var name = type.getSimpleName().toString();
+		var enclosing = type.getEnclosingElement();
+		while (enclosing instanceof TypeElement) {
+			name = enclosing.getSimpleName() + "_" + name;
+			enclosing = enclosing.getEnclosingElement();
+		}
+		return name;
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
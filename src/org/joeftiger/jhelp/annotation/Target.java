@@ -0,0 +1,25 @@
+package org.joeftiger.jhelp.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Declares a {@link String} field (or record component) as usage target. Targets are bound to the positional inputs in
+ * declaration order.
+ *
+ * @author Julius Oeftiger
+ * @version 0.1
+ * @see org.joeftiger.jhelp.HelpTarget
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@java.lang.annotation.Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface Target {
+
+	/**
+	 * @return target name. The field name if empty.
+	 */
+	String value() default "";
+}
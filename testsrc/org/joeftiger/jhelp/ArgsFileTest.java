@@ -0,0 +1,73 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.MalformedInputException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArgsFileTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readText() {
+		assertEquals(List.of("-a", "b c", "", "it's", "x\ty", "joined"), read("""
+				-a "b c" ''  # comment -x "
+				"it's" 'x\\ty'
+				# full line comment
+				"jo\\
+				     ined"
+				"""));
+		assertEquals(List.of("a#b", "C:\\path"), read("a#b C:\\path"));
+		assertEquals(List.of(), read(" \n\t "));
+		assertThrows(IllegalArgumentException.class, () -> read("\"open"));
+	}
+
+	@Test
+	void readSmallFile() throws IOException {
+		var file = Files.writeString(dir.resolve("args"), "--count 3\r\n\"grüezi mitenand\"\r\n");
+
+		var tokens = new ArrayList<String>();
+		ArgsFile.read(file, tokens::add);
+		assertEquals(List.of("--count", "3", "grüezi mitenand"), tokens);
+	}
+
+	@Test
+	void readMappedWindows() throws IOException {
+		var expected = new ArrayList<String>();
+		var content = new StringBuilder();
+		for (var i = 0; content.length() < 3 * ArgsFile.MAP_THRESHOLD; i++) {
+			var token = "ärg" + i + "€";
+			expected.add(token);
+			content.append(token).append(i % 7 == 0 ? '\n' : ' ');
+		}
+		var file = Files.writeString(dir.resolve("large"), content);
+
+		// odd window sizes split multi-byte characters between windows
+		for (var window : new long[]{7, 4099, ArgsFile.MAP_WINDOW}) {
+			var tokens = new ArrayList<String>();
+			ArgsFile.read(file, window, tokens::add);
+			assertEquals(expected, tokens);
+		}
+	}
+
+	@Test
+	void readMalformed() throws IOException {
+		var file = Files.write(dir.resolve("latin1"), new byte[]{'a', ' ', (byte) 0xE4, 'b'});
+		assertThrows(MalformedInputException.class, () -> ArgsFile.read(file, s -> { }));
+	}
+
+	private static List<String> read(String text) {
+		var tokens = new ArrayList<String>();
+		ArgsFile.read(text, tokens::add);
+		return tokens;
+	}
+}
@@ -0,0 +1,140 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledHelpTest {
+
+	private final HelpOption count = new HelpOptionBuilder()
+			.addInvokes("-n", "--count")
+			.setParameterType(Integer.class)
+			.setDescription("count")
+			.build();
+	private JavaHelp help;
+	private CompiledHelp compiled;
+
+	@BeforeEach
+	void setUp() {
+		help = new JavaHelp()
+				.setUsage(new HelpUsage().addTargets("input", "output"))
+				.addOptions(count);
+		compiled = help.compile();
+	}
+
+	@Test
+	void getOptionByInvoke() {
+		assertEquals(count, compiled.getOptionByInvoke("--count"));
+		assertTrue(compiled.hasOptionInvoke("-n"));
+		assertFalse(compiled.hasOptionInvoke(null));
+		assertThrows(NoSuchElementException.class, () -> compiled.getOptionByInvoke("-x"));
+	}
+
+	@Test
+	void snapshot() {
+		help.addOptions(new HelpOptionBuilder().addInvokes("-x").build()).setOptionIndent(4);
+
+		assertFalse(compiled.hasOptionInvoke("-x"));
+		assertEquals(1, compiled.getOptions().size());
+		assertNotEquals(help.toString(), compiled.toString());
+		assertThrows(UnsupportedOperationException.class, () -> compiled.getOptions().clear());
+	}
+
+	@Test
+	void renderOnFirstUse() {
+		var statistics = new HelpStatistics();
+		var a = new HelpOptionBuilder().addInvokes("-a").setDescription("all").build();
+		var lazy = help.addOptions(a)
+				.sortOptions(true)
+				.addCommand("migrate", "runs the migrations", JavaHelp::new)
+				.setListener(statistics)
+				.compile();
+		assertEquals(0, statistics.getRenders().getCount());
+
+		assertEquals(a.toString(2, 24, 1024), lazy.getOptionHelp("-a"));
+		assertEquals(1, statistics.getRenders().getCount());
+		assertEquals(help.toString(), lazy.toString());
+		assertSame(lazy.toString(), lazy.toString());
+	}
+
+	@Test
+	void parse() {
+		ParseResult first = compiled.parse("a", "-n", "1", "b");
+		ParseResult second = compiled.parse("c");
+
+		assertEquals(2, first.numberOfTargets());
+		assertEquals("<output>", first.getTarget(1).toString());
+		assertEquals("<input>", second.getTarget(0).toString());
+		assertThrows(IllegalArgumentException.class, () -> compiled.parse("a", "b", "c"));
+	}
+
+	@Test
+	void concurrentParse() throws Exception {
+		final String rendered = compiled.toString();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (var t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					for (var i = 0; i < 10_000; i++) {
+						var value = String.valueOf(i);
+						ParseResult result = compiled.parse(value, "--count", value);
+						assertEquals(value, result.getTargetValue(0));
+						assertEquals(i, result.getParsedValue(0));
+						assertSame(rendered, compiled.toString());
+					}
+				}));
+			}
+			for (var f : futures) {
+				f.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void parseAll() {
+		List<ParseOutcome> outcomes = compiled.parseAll(List.of(
+				new String[]{"a", "-n", "1"},
+				new String[]{"-n", "x"},
+				new String[]{"b"}));
+
+		assertEquals(3, outcomes.size());
+		assertTrue(outcomes.get(0).isSuccess());
+		assertEquals(1, outcomes.get(0).getResult().getParsedValue(0));
+		assertFalse(outcomes.get(1).isSuccess());
+		assertEquals("Invalid parameter for option -n: x", outcomes.get(1).getError());
+		assertThrows(NoSuchElementException.class, () -> outcomes.get(1).getResult());
+		assertEquals("b", outcomes.get(2).getResult().getTargetValue(0));
+		assertNull(outcomes.get(2).getError());
+	}
+
+	@Test
+	void parseAllParallel() {
+		List<ParseOutcome> outcomes = compiled.parseAll(IntStream.range(0, 10_000)
+						.parallel()
+						.mapToObj(i -> i % 3 == 0
+								? new String[]{"--count", String.valueOf(i)}
+								: new String[]{"--count", "no" + i}))
+				.collect(Collectors.toList());
+
+		for (var i = 0; i < outcomes.size(); i++) {
+			assertEquals(i % 3 == 0, outcomes.get(i).isSuccess());
+			assertEquals("--count", outcomes.get(i).getArguments()[0]);
+			if (i % 3 == 0) {
+				assertEquals(i, outcomes.get(i).getResult().getParsedValue(0));
+			}
+		}
+	}
+}
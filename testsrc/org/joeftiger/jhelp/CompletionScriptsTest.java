@@ -0,0 +1,93 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionScriptsTest {
+
+	private JavaHelp help;
+	private boolean built;
+
+	@BeforeEach
+	void setUp() {
+		help = new JavaHelp()
+				.setUsage(new HelpUsage().setProgramName("admin").addTargets("user"))
+				.addOptions(
+						new HelpOptionBuilder()
+								.addInvokes("-m", "--mode")
+								.addParameters("read", "write")
+								.setDescription("access mode")
+								.build(),
+						new HelpOptionBuilder()
+								.addInvokes("-o", "--output")
+								.setParameterType(Path.class)
+								.setDescription("output file: 'log'")
+								.build(),
+						new HelpOptionBuilder()
+								.addInvokes("-n")
+								.setParameterType(Integer.class)
+								.build(),
+						new HelpOptionBuilder()
+								.addInvokes("-v", "-verbose")
+								.setDescription("verbose [all]")
+								.build())
+				.addCommand("migrate", "runs the migrations", () -> {
+					built = true;
+					return new JavaHelp();
+				});
+	}
+
+	@Test
+	void bash() throws IOException {
+		var sb = new StringBuilder();
+		CompletionScripts.bash(help, sb);
+		var script = sb.toString();
+
+		assertTrue(script.contains("\t\t'-m'|'--mode')\n\t\t\tCOMPREPLY=($(compgen -W 'read write' -- \"$cur\"))\n"));
+		assertTrue(script.contains("\t\t'-o'|'--output')\n\t\t\tcompopt -o filenames 2>/dev/null\n\t\t\tCOMPREPLY=($(compgen -f -- \"$cur\"))\n"));
+		assertTrue(script.contains("\t\t'-n')\n\t\t\tCOMPREPLY=()\n"));
+		assertTrue(script.contains("compgen -W '-m --mode -o --output -n -v -verbose'"));
+		assertTrue(script.contains("compgen -W 'migrate'"));
+		assertTrue(script.endsWith("complete -F _admin_complete 'admin'\n"));
+		assertFalse(built);
+	}
+
+	@Test
+	void zsh() throws IOException {
+		var sb = new StringBuilder();
+		CompletionScripts.zsh(help, sb);
+		var script = sb.toString();
+
+		assertTrue(script.startsWith("#compdef admin\n"));
+		assertTrue(script.contains("names=('migrate')\n"));
+		assertTrue(script.contains("'--mode[access mode]:value:(read write)'"));
+		assertTrue(script.contains("'-o[output file\\: '\\''log'\\'']:Path:_files'"));
+		assertTrue(script.contains("'-n:Integer: '"));
+		assertTrue(script.contains("'-verbose[verbose \\[all\\]]'"));
+		assertFalse(built);
+	}
+
+	@Test
+	void fish() throws IOException {
+		var sb = new StringBuilder();
+		CompletionScripts.fish(help, sb);
+
+		assertEquals("# fish completion for admin\n" +
+		             "complete -c 'admin' -s 'm' -l 'mode' -d 'access mode' -x -a 'read write'\n" +
+		             "complete -c 'admin' -s 'o' -l 'output' -d 'output file: \\'log\\'' -r -F\n" +
+		             "complete -c 'admin' -s 'n' -x\n" +
+		             "complete -c 'admin' -s 'v' -o 'verbose' -d 'verbose [all]'\n" +
+		             "complete -c 'admin' -n '__fish_use_subcommand' -a 'migrate' -d 'runs the migrations'\n", sb.toString());
+		assertFalse(built);
+	}
+
+	@Test
+	void missingProgramName() {
+		assertThrows(IllegalArgumentException.class, () -> CompletionScripts.bash(new JavaHelp(), new StringBuilder()));
+	}
+}
@@ -0,0 +1,45 @@
+package org.joeftiger.jhelp;
+
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Help shared by the tests of the output formats.
+ */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	/**
+	 * Returns the help of an {@code admin} program with a target, an enumerated, a path, an integer and a flag option and
+	 * a subcommand. The descriptions contain characters that some formats have to escape.
+	 *
+	 * @param migrate builds the {@code migrate} command
+	 * @return new help
+	 */
+	static JavaHelp admin(Supplier<JavaHelp> migrate) {
+		return new JavaHelp()
+				.setUsage(new HelpUsage().setProgramName("admin").addTargets("user"))
+				.addOptions(
+						new HelpOptionBuilder()
+								.addInvokes("-m", "--mode")
+								.addParameters("read", "write")
+								.setDescription("access mode")
+								.build(),
+						new HelpOptionBuilder()
+								.addInvokes("-o", "--output")
+								.setParameterType(Path.class)
+								.setDescription("output file: 'log'")
+								.build(),
+						new HelpOptionBuilder()
+								.addInvokes("-n")
+								.setParameterType(Integer.class)
+								.build(),
+						new HelpOptionBuilder()
+								.addInvokes("-v", "-verbose")
+								.setDescription("verbose [all]")
+								.build())
+				.addCommand("migrate", "runs the \"migrations\"", migrate);
+	}
+}
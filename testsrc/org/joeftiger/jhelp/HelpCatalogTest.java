@@ -0,0 +1,107 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HelpCatalogTest {
+
+	private CompiledHelp help;
+
+	@BeforeEach
+	void setUp() {
+		help = new JavaHelp()
+				.setUsage(new HelpUsage().setProgramName("tool").addTargets("file"))
+				.addOptions(
+						new HelpOptionBuilder().addInvokes("-v", "--verbose").setDescription("more output").build(),
+						new HelpOptionBuilder().addInvokes("-n", "--count").setParameterType(Integer.class).setDescription("zählt").build(),
+						new HelpOptionBuilder().addInvokes("--verbosity").addParameters("low", "high").build())
+				.compile();
+	}
+
+	@Test
+	void loadFile(@TempDir Path dir) throws IOException {
+		var file = dir.resolve("help.catalog");
+		HelpCatalog.write(help, file);
+
+		var catalog = HelpCatalog.load(file);
+		assertEquals(help.toString(), catalog.toString());
+		assertSame(catalog.toString(), catalog.toString());
+		assertEquals(3, catalog.numberOfOptions());
+		assertEquals(1, catalog.getOptionIndex("--count"));
+		assertEquals(2, catalog.getOptionIndex("--verbosity"));
+		assertTrue(catalog.hasOptionInvoke("-v"));
+		assertFalse(catalog.hasOptionInvoke("--verb"));
+		assertFalse(catalog.hasOptionInvoke(null));
+		assertThrows(NoSuchElementException.class, () -> catalog.getOptionIndex("-x"));
+		assertEquals(List.of("--verbose", "--verbosity"), catalog.complete("--verb"));
+		assertEquals(List.of(), catalog.complete("--z"));
+	}
+
+	@Test
+	void longInvokes() throws IOException {
+		var longest = "--" + "x".repeat(65533);
+		var out = new ByteArrayOutputStream();
+		HelpCatalog.write(new JavaHelp().addOptions(new HelpOptionBuilder().addInvokes(longest).build()).compile(), out);
+		assertEquals(0, HelpCatalog.load(new ByteArrayInputStream(out.toByteArray())).getOptionIndex(longest));
+
+		var tooLong = new JavaHelp().addOptions(new HelpOptionBuilder().addInvokes("--" + "ü".repeat(32767)).build()).compile();
+		out.reset();
+		assertThrows(IllegalArgumentException.class, () -> HelpCatalog.write(tooLong, out));
+		assertEquals(0, out.size());
+	}
+
+	@Test
+	void loadStream() throws IOException {
+		var out = new ByteArrayOutputStream();
+		HelpCatalog.write(help, out);
+
+		var catalog = HelpCatalog.load(new ByteArrayInputStream(out.toByteArray()));
+		var sb = new StringBuilder();
+		catalog.renderTo(sb);
+		assertEquals(help.toString(), sb.toString());
+		assertEquals(0, catalog.getOptionIndex("--verbose"));
+	}
+
+	@Test
+	void loadInvalid() throws IOException {
+		var out = new ByteArrayOutputStream();
+		HelpCatalog.write(help, out);
+		var bytes = out.toByteArray();
+
+		assertThrows(IOException.class, () -> HelpCatalog.load(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1))));
+		bytes[0] = 'X';
+		assertThrows(IOException.class, () -> HelpCatalog.load(new ByteArrayInputStream(bytes)));
+	}
+
+	@Test
+	void loadCorrupt() throws IOException {
+		var out = new ByteArrayOutputStream();
+		HelpCatalog.write(help, out);
+		var bytes = out.toByteArray();
+
+		// number of options at 6, number of invokes at 10, first option index at 14
+		assertCorrupt(bytes, 6, -1);
+		assertCorrupt(bytes, 10, -1);
+		assertCorrupt(bytes, 10, Integer.MAX_VALUE);
+		assertCorrupt(bytes, 14, 3);
+		assertCorrupt(bytes, 14, -1);
+	}
+
+	private static void assertCorrupt(byte[] bytes, int offset, int value) {
+		var corrupt = bytes.clone();
+		ByteBuffer.wrap(corrupt).putInt(offset, value);
+		assertThrows(IOException.class, () -> HelpCatalog.load(new ByteArrayInputStream(corrupt)));
+	}
+}
@@ -3,6 +3,7 @@ package org.joeftiger.jhelp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,6 +60,25 @@ class HelpOptionTest {
 		assertEquals(expected, option.toString(2, 24, 50));
 	}
 
+	@Test
+	void renderTo() throws IOException {
+		var sb = new StringBuilder();
+		option.renderTo(sb, 2, 24, 50);
+		assertEquals(option.toString(2, 24, 50), sb.toString());
+
+		HelpOption o = new HelpOptionBuilder()
+				.addInvokes("-m", "--method")
+				.addParameters("rank", "random")
+				.setDescription(description)
+				.build();
+		sb.setLength(0);
+		o.renderTo(sb, 4, 20, 40);
+		assertEquals("    -m, --method {rank,random}\n" +
+		             "                    This is a long\n" +
+		             "                    description meant to\n" +
+		             "                    confuse the reader.", sb.toString());
+	}
+
 	@Test
 	void matchesInvoke() {
 		assertTrue(option.matchesInvoke("-h"));
@@ -90,6 +110,119 @@ class HelpOptionTest {
 		assertFalse(o2.matchesParameter("bar"));
 	}
 
+	private enum Method {RANK, RANDOM}
+
+	@Test
+	void matchesParameterIgnoreCase() {
+		HelpOption o = new HelpOptionBuilder()
+				.addParameters("Foo", "Bar")
+				.setIgnoreCase(true)
+				.build();
+		assertTrue(o.matchesParameter("foo"));
+		assertTrue(o.matchesParameter("BAR"));
+		assertFalse(o.matchesParameter("baz"));
+		assertFalse(o.matchesParameter(null));
+		assertEquals("Foo", o.parseValue("FOO"));
+	}
+
+	@Test
+	void matchesParameterEnum() {
+		var received = new Method[1];
+		HelpOption o = new HelpOptionBuilder()
+				.addInvokes("-m")
+				.setCallback(Method.class, m -> received[0] = m)
+				.setIgnoreCase(true)
+				.build();
+		assertEquals("-m {RANK,RANDOM}", o.toString(0));
+		assertTrue(o.matchesParameter("random"));
+		assertFalse(o.matchesParameter("ranking"));
+		assertEquals(Method.RANK, o.parseValue("Rank"));
+
+		o.applyToCallback("random");
+		assertEquals(Method.RANDOM, received[0]);
+	}
+
+	@Test
+	void parseValue() {
+		HelpOption o1 = new HelpOptionBuilder()
+				.setParameterType(Integer.class)
+				.build();
+		assertEquals(100, o1.parseValue("100"));
+		assertThrows(IllegalArgumentException.class, () -> o1.parseValue("hundred"));
+
+		HelpOption o2 = new HelpOptionBuilder()
+				.addParameters("Foo", "Bar")
+				.build();
+		assertEquals("Foo", o2.parseValue("Foo"));
+		assertThrows(IllegalArgumentException.class, () -> o2.parseValue("foo"));
+	}
+
+	@Test
+	void typedCallback() {
+		var received = new Object[1];
+		HelpOption o1 = new HelpOptionBuilder()
+				.setCallback(Double.class, d -> received[0] = d)
+				.build();
+		assertTrue(o1.matchesParameter("1.5"));
+		o1.applyToCallback("1.5");
+		assertEquals(1.5, received[0]);
+
+		HelpOption primitive = new HelpOptionBuilder()
+				.setCallback(int.class, i -> received[0] = i)
+				.build();
+		primitive.applyToCallback("7");
+		assertEquals(7, received[0]);
+
+		var sum = new long[1];
+		HelpOption o2 = new HelpOptionBuilder()
+				.setLongCallback(l -> sum[0] += l)
+				.build();
+		o2.applyToCallback("40");
+		o2.applyToCallback("2", null);
+		assertEquals(42, sum[0]);
+		assertEquals("{Long}", o2.toString(0).strip());
+
+		HelpOption o3 = new HelpOptionBuilder()
+				.setIntCallback(i -> sum[0] = i)
+				.build();
+		assertThrows(NumberFormatException.class, () -> o3.applyToCallback("four"));
+	}
+
+	@Test
+	void typedCallbackTypeMismatch() {
+		var builder = new HelpOptionBuilder().setParameterType(Long.class);
+		assertThrows(IllegalArgumentException.class, () -> builder.setCallback(Integer.class, i -> {}).build());
+		assertThrows(IllegalArgumentException.class, () -> new HelpOptionBuilder()
+				.setCallback(Thread.class, t -> {})
+				.build());
+		assertThrows(IllegalArgumentException.class, () -> new HelpOptionBuilder()
+				.addParameters("a", "b")
+				.setCallback(Method.class, m -> {})
+				.build());
+
+		assertThrows(IllegalArgumentException.class, () -> new HelpOptionBuilder()
+				.setParameterType(Double.class)
+				.setIntCallback(i -> {})
+				.build());
+		assertThrows(IllegalArgumentException.class, () -> new HelpOptionBuilder()
+				.setParameterType(Long.class)
+				.setIntCallback(i -> {})
+				.build());
+		assertThrows(IllegalArgumentException.class, () -> new HelpOptionBuilder()
+				.addParameters("1", "2")
+				.setLongCallback(l -> {})
+				.build());
+		assertThrows(IllegalArgumentException.class, () -> new HelpOptionBuilder()
+				.setParameterType(Integer.class)
+				.setDoubleCallback(d -> {})
+				.build());
+
+		assertDoesNotThrow(() -> new HelpOptionBuilder().setParameterType(int.class).setCallback(Integer.class, i -> {}).build());
+		assertDoesNotThrow(() -> new HelpOptionBuilder().setParameterType(int.class).setIntCallback(i -> {}).build());
+		assertDoesNotThrow(() -> new HelpOptionBuilder().setParameterType(Long.class).setCallback(Number.class, n -> {}).build());
+		assertDoesNotThrow(() -> new HelpOptionBuilder().addParameters("a").setCallback(String.class, s -> {}).build());
+	}
+
 	@Test
 	void getCallback() {
 		assertNotNull(option.getCallback());
@@ -0,0 +1,95 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HelpShellTest {
+
+	private final List<String> calls = new ArrayList<>();
+	private CompiledHelp help;
+	private HelpShell shell;
+
+	@BeforeEach
+	void setUp() {
+		help = new JavaHelp()
+				.setUsage(new HelpUsage().setProgramName("admin").addTargets(new HelpTarget("user", s -> calls.add("user " + s))))
+				.addOptions(
+						new HelpOptionBuilder()
+								.addInvokes("-m", "--mode")
+								.addParameters("read", "write", "rename")
+								.setDescription("access mode")
+								.setCallback(s -> {
+									if (s.equals("rename")) throw new IllegalStateException("boom");
+									calls.add("mode " + s);
+								})
+								.build(),
+						new HelpOptionBuilder()
+								.addInvokes("--region")
+								.addParameters("eu-west", "EU-central", "us-east")
+								.setIgnoreCase(true)
+								.build(),
+						new HelpOptionBuilder()
+								.addInvokes("--retries")
+								.setParameterType(Integer.class)
+								.build())
+				.compile();
+		shell = new HelpShell(help).setPrompt("$ ");
+	}
+
+	@Test
+	void complete() {
+		assertEquals(List.of("--mode", "--region", "--retries"), shell.complete("--"));
+		assertEquals(List.of("--region", "--retries"), shell.complete("user -m read --re"));
+		assertEquals(List.of("read", "rename"), shell.complete("-m re"));
+		assertEquals(List.of("read", "rename", "write"), shell.complete("--mode  "));
+		assertEquals(List.of("EU-central", "eu-west"), shell.complete("--region eu"));
+		assertEquals(List.of(), shell.complete("--retries 1"));
+		assertEquals(List.of(), shell.complete("us"));
+	}
+
+	@Test
+	void run() throws IOException {
+		var input = String.join("\n",
+				"-m write \"jane doe\"",
+				"-m delete",
+				"help --mode",
+				"-m read\t",
+				"exit",
+				"-m read");
+		var out = new StringBuilder();
+		shell.run(new BufferedReader(new StringReader(input)), out);
+
+		assertEquals(List.of("mode write", "user jane doe", "mode read"), calls);
+		assertEquals("$ "
+				+ "$ Error: Invalid parameter for option -m: delete\n"
+				+ "$ " + help.getOptionHelp("-m") + "\n"
+				+ "$ "
+				+ "$ ", out.toString());
+		assertTrue(help.getOptionHelp("--mode").contains("access mode"));
+	}
+
+	@Test
+	void runAfterFailingCallback() throws IOException {
+		var out = new StringBuilder();
+		shell.run(new BufferedReader(new StringReader("-m rename\n-m read")), out);
+
+		assertEquals(List.of("mode read"), calls);
+		assertEquals("$ Error: boom\n$ $ ", out.toString());
+	}
+
+	@Test
+	void runUntilEnd() throws IOException {
+		var out = new StringBuilder();
+		shell.run(new BufferedReader(new StringReader("help\n'open")), out);
+
+		assertEquals("$ " + help + "\n$ Error: Unterminated quote\n$ ", out.toString());
+	}
+}
@@ -0,0 +1,100 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HelpStatisticsTest {
+
+	private final HelpStatistics statistics = new HelpStatistics();
+	private final HelpOption count = new HelpOptionBuilder()
+			.addInvokes("-n", "--count")
+			.setIntCallback(n -> {
+				if (n < 0) throw new IllegalArgumentException("negative");
+			})
+			.build();
+	private JavaHelp help;
+
+	@BeforeEach
+	void setUp() {
+		help = new JavaHelp()
+				.setUsage(new HelpUsage().addTargets(new HelpTarget("file", s -> { })))
+				.addOptions(count)
+				.setListener(statistics);
+	}
+
+	@Test
+	void parseAndDispatch() {
+		help.parse("-n", "1", "file", "--count", "2").dispatch();
+		assertThrows(IllegalArgumentException.class, () -> help.parse("-n", "x"));
+		assertThrows(IllegalArgumentException.class, () -> help.parse("file", "--unknown"));
+		assertThrows(IllegalArgumentException.class, () -> help.compile().parse("-n", "-1").dispatch());
+
+		assertEquals(5, statistics.getLookups().getCount());
+		assertEquals(1, statistics.getLookups().getFailures());
+		assertEquals(4, statistics.getLookups(count).getCount());
+		assertEquals(4, statistics.getValidations(count).getCount());
+		assertEquals(1, statistics.getValidations().getFailures());
+		assertEquals(3, statistics.getCallbacks(count).getCount());
+		assertEquals(1, statistics.getCallbacks(count).getFailures());
+		assertEquals(1, statistics.getTargetCallbacks().getCount());
+	}
+
+	@Test
+	void lookupAndRender() {
+		help.getOptionByInvoke("-n");
+		assertThrows(NoSuchElementException.class, () -> help.getOptionByInvoke("-x"));
+		help.toString();
+		help.toString();
+
+		assertEquals(2, statistics.getLookups().getCount());
+		assertEquals(1, statistics.getLookups().getFailures());
+		assertEquals(1, statistics.getRenders().getCount());
+		assertEquals(0, statistics.getCallbacks(count).getCount());
+	}
+
+	@Test
+	void compiledLookups() {
+		var compiled = help.compile();
+		compiled.getOptionByInvoke("--count");
+		compiled.getOptionByPrefix("--cou");
+		assertTrue(compiled.hasOptionInvoke("-n"));
+		assertFalse(compiled.hasOptionInvoke("-x"));
+		assertThrows(NoSuchElementException.class, () -> compiled.getOptionByPrefix("--x"));
+
+		assertEquals(5, statistics.getLookups().getCount());
+		assertEquals(2, statistics.getLookups().getFailures());
+		assertEquals(3, statistics.getLookups(count).getCount());
+	}
+
+	@Test
+	void histogram() {
+		List<Long> durations = new ArrayList<>();
+		help.setListener(new HelpListener() {
+			@Override
+			public void onLookup(String input, HelpOption option, long nanos) {
+				durations.add(nanos);
+				statistics.onLookup(input, option, nanos);
+			}
+		});
+		for (var i = 0; i < 100; i++) {
+			help.getOptionByInvoke("--count");
+		}
+
+		var timer = statistics.getLookups();
+		assertEquals(100, timer.getCount());
+		assertEquals(durations.stream().mapToLong(Long::longValue).sum(), timer.getTotalNanos());
+		assertEquals(100, Arrays.stream(timer.getHistogram()).sum());
+		var max = durations.stream().mapToLong(Long::longValue).max().orElseThrow();
+		assertTrue(timer.getPercentileNanos(100) >= max);
+		assertTrue(timer.getPercentileNanos(100) < 2 * Math.max(1, max));
+		assertTrue(timer.getPercentileNanos(50) <= timer.getPercentileNanos(100));
+		assertEquals(0, new HelpStatistics().getRenders().getPercentileNanos(50));
+	}
+}
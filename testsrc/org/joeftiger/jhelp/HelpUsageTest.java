@@ -3,6 +3,7 @@ package org.joeftiger.jhelp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -69,6 +70,13 @@ class HelpUsageTest {
 		assertEquals("<empty>", usage.getNextTarget().toString());
 	}
 
+	@Test
+	void renderTo() throws IOException {
+		var sb = new StringBuilder();
+		usage.renderTo(sb);
+		assertEquals(usage.toString(), sb.toString());
+	}
+
 	@Test
 	void testToString() {
 		assertEquals("USAGE:\n" +
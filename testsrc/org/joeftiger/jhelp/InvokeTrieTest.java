@@ -0,0 +1,71 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvokeTrieTest {
+
+	private final HelpOption verbose = new HelpOptionBuilder().addInvokes("-v", "--verbose", "--verbosity").build();
+	private final HelpOption version = new HelpOptionBuilder().addInvokes("--version").build();
+	private InvokeTrie trie;
+
+	@BeforeEach
+	void setUp() {
+		trie = new InvokeTrie();
+		trie.add("-v", verbose);
+		trie.add("--verbose", verbose);
+		trie.add("--verbosity", verbose);
+		trie.add("--version", version);
+	}
+
+	@Test
+	void get() {
+		assertEquals(verbose, trie.get("--verbose", 0, 9));
+		assertEquals(version, trie.get("x--versionx", 1, 10));
+		assertNull(trie.get("--verb", 0, 6));
+	}
+
+	@Test
+	void getShort() {
+		trie.add("-\u00e4", version);
+
+		assertEquals(verbose, trie.getShort('v'));
+		assertNull(trie.getShort('x'));
+		assertNull(trie.getShort('-'));
+		assertNull(trie.getShort('\u00e4'));
+		assertEquals(version, trie.get("-\u00e4", 0, 2));
+	}
+
+	@Test
+	void getByPrefix() {
+		assertEquals(verbose, trie.getByPrefix("--verb", 0, 6));
+		assertEquals(version, trie.getByPrefix("--vers", 0, 6));
+		assertEquals(verbose, trie.getByPrefix("-v", 0, 2));
+		assertNull(trie.getByPrefix("--ver", 0, 5));
+		assertNull(trie.getByPrefix("--x", 0, 3));
+	}
+
+	@Test
+	void complete() {
+		assertEquals(List.of("--verbose", "--verbosity", "--version"), trie.complete("--ver"));
+		assertEquals(List.of(), trie.complete("-x"));
+	}
+
+	@Test
+	void suggest() {
+		assertArrayEquals(new String[]{"--verbose"}, trie.suggest("--vrebose", 2, 3));
+		assertArrayEquals(new String[]{"--verbose", "--verbosity"}, trie.suggest("--verbosi", 2, 3));
+		assertArrayEquals(new String[]{"--verbose"}, trie.suggest("--verbosi", 2, 1));
+		assertArrayEquals(new String[0], trie.suggest("--quiet", 2, 3));
+	}
+
+	@Test
+	void describeUnknown() {
+		assertEquals("Unknown option: --verison (did you mean --version?)", trie.describeUnknown("--verison"));
+		assertEquals("Unknown option: --quiet", trie.describeUnknown("--quiet"));
+	}
+}
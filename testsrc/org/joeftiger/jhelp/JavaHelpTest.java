@@ -2,8 +2,16 @@ package org.joeftiger.jhelp;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -65,6 +73,352 @@ class JavaHelpTest {
 		assertEquals(option, help.getOptionByInvoke("--callback"));
 	}
 
+	@Test
+	void addOptionsDuplicateInvoke() {
+		HelpOption duplicate = new HelpOptionBuilder()
+				.addInvokes("-d", "--callback")
+				.build();
+		assertThrows(IllegalArgumentException.class, () -> help.addOptions(duplicate));
+		assertFalse(help.hasOptionInvoke("-d"));
+
+		HelpOption twice = new HelpOptionBuilder()
+				.addInvokes("-t", "-t")
+				.build();
+		assertThrows(IllegalArgumentException.class, () -> help.addOptions(twice));
+		assertFalse(help.hasOptionInvoke("-t"));
+	}
+
+	@Test
+	void getOptionByPrefix() {
+		assertEquals(option, help.getOptionByPrefix("--call"));
+		assertEquals(option, help.getOptionByPrefix("-c"));
+		assertThrows(NoSuchElementException.class, () -> help.getOptionByPrefix("--x"));
+		assertThrows(NoSuchElementException.class, () -> help.getOptionByPrefix(null));
+	}
+
+	@Test
+	void suggestInvokes() {
+		assertArrayEquals(new String[]{"--callback"}, help.suggestInvokes("--calback"));
+		var e = assertThrows(NoSuchElementException.class, () -> help.getOptionByInvoke("--calback"));
+		assertTrue(e.getMessage().contains("--callback"));
+	}
+
+	@Test
+	void parseAbbreviations() {
+		assertThrows(IllegalArgumentException.class, () -> help.parse("--call", "--call"));
+		assertEquals(option, help.allowAbbreviations(true).parse("--call").getOption(0));
+	}
+
+	@Test
+	void parse() {
+		HelpOption count = new HelpOptionBuilder()
+				.addInvokes("-n", "--count")
+				.setParameterType(Integer.class)
+				.build();
+		help.addOptions(count);
+
+		ParseResult result = help.parse("-c", "file", "--count", "3");
+		assertEquals(2, result.numberOfOptions());
+		assertEquals(option, result.getOption(0));
+		assertNull(result.getOptionValue(0));
+		assertEquals(count, result.getOption(1));
+		assertEquals("3", result.getOptionValue(1));
+		assertEquals(1, result.numberOfTargets());
+		assertEquals(target, result.getTarget(0));
+		assertEquals("file", result.getTargetValue(0));
+
+		result = help.parse("--", "-c");
+		assertEquals(0, result.numberOfOptions());
+		assertEquals("-c", result.getTargetValue(0));
+	}
+
+	@Test
+	void addCommand() {
+		var built = new ArrayList<String>();
+		HelpOption force = new HelpOptionBuilder().addInvokes("-f", "--force").build();
+		help.addCommand("migrate", "runs the migrations", () -> {
+			built.add("migrate");
+			return new JavaHelp().addOptions(force);
+		}).addCommand("status", null, () -> {
+			built.add("status");
+			return new JavaHelp();
+		});
+
+		assertEquals("USAGE:\n" +
+		             " null [options] <empty>\n" +
+		             "\n" +
+		             "OPTIONS:\n" +
+		             "  -c, --callback        description\n" +
+		             "\n" +
+		             "COMMANDS:\n" +
+		             "  migrate               runs the migrations\n" +
+		             "  status", help.toString());
+		assertTrue(help.hasCommand("migrate"));
+		assertTrue(built.isEmpty());
+
+		assertSame(help.getCommand("migrate"), help.getCommand("migrate"));
+		assertEquals(List.of("migrate"), built);
+		assertThrows(NoSuchElementException.class, () -> help.getCommand("unknown"));
+		assertThrows(IllegalArgumentException.class, () -> help.addCommand("status", null, JavaHelp::new));
+		assertThrows(IllegalArgumentException.class, () -> help.addCommand("-x", null, JavaHelp::new));
+	}
+
+	@Test
+	void parseCommand() {
+		var built = new ArrayList<String>();
+		var calls = new ArrayList<String>();
+		HelpOption force = new HelpOptionBuilder()
+				.addInvokes("-f", "--force")
+				.setCallback(s -> calls.add("force"))
+				.build();
+		help.addCommand("migrate", null, () -> {
+			built.add("migrate");
+			return new JavaHelp().addOptions(force);
+		}).addCommand("status", null, () -> {
+			built.add("status");
+			return new JavaHelp();
+		});
+
+		ParseResult result = help.parse("-c", "migrate", "-f");
+		assertEquals(1, result.numberOfOptions());
+		assertEquals(0, result.numberOfTargets());
+		assertEquals("migrate", result.getCommand());
+		assertEquals(force, result.getCommandResult().getOption(0));
+		assertEquals(List.of("migrate"), built);
+
+		result.dispatch();
+		assertEquals(List.of("force"), calls);
+
+		// a bound target ends the commands
+		result = help.parse("file");
+		assertNull(result.getCommand());
+		assertNull(result.getCommandResult());
+
+		var e = assertThrows(IllegalArgumentException.class, () -> help.parse("migrate", "extra"));
+		assertEquals("migrate: Unexpected argument: extra", e.getMessage());
+		assertEquals(List.of("migrate"), built);
+
+		assertEquals("migrate", help.compile().parse("migrate").getCommand());
+	}
+
+	@Test
+	void parseCommandCompiledOnce() {
+		var child = new JavaHelp();
+		var statistics = new HelpStatistics();
+		help.setListener(statistics)
+				.addCommand("migrate", null, () -> child)
+				.addCommand("broken", null, () -> null);
+
+		assertEquals(0, help.parse("migrate").getCommandResult().numberOfOptions());
+		// the command was compiled by the first parse
+		child.addOptions(new HelpOptionBuilder().addInvokes("-f").build());
+		assertThrows(IllegalArgumentException.class, () -> help.parse("migrate", "-f"));
+		// lookups within the command are reported to the listener of the enclosing parse
+		assertEquals(1, statistics.getLookups().getFailures());
+
+		var e = assertThrows(IllegalArgumentException.class, () -> help.parse("broken"));
+		assertTrue(e.getMessage().startsWith("broken: Cannot build command"));
+
+		var outcomes = help.compile().parseAll(List.of(new String[]{"broken"}, new String[]{"migrate"}));
+		assertFalse(outcomes.get(0).isSuccess());
+		assertTrue(outcomes.get(1).isSuccess());
+	}
+
+	@Test
+	void parseCommandNestingItself() {
+		var commands = new ArrayList<String>();
+		var nested = new JavaHelp().addOptions(new HelpOptionBuilder().addInvokes("-v").build());
+		nested.addCommand("nested", null, () -> nested);
+		help.addCommand("nested", null, () -> nested);
+
+		var result = help.compile().parse("nested", "-v", "nested", "nested", "-v");
+		for (var r = result.getCommandResult(); r != null; r = r.getCommandResult()) {
+			commands.add(r.numberOfOptions() + ":" + r.getCommand());
+		}
+		assertEquals(List.of("1:nested", "0:nested", "1:null"), commands);
+	}
+
+	@Test
+	void parseInvalid() {
+		help.addOptions(new HelpOptionBuilder()
+				.addInvokes("-n")
+				.setParameterType(Integer.class)
+				.build());
+
+		assertThrows(IllegalArgumentException.class, () -> help.parse("-n"));
+		assertThrows(IllegalArgumentException.class, () -> help.parse("-n", "three"));
+		assertThrows(IllegalArgumentException.class, () -> help.parse("file", "other"));
+	}
+
+	@Test
+	void parseResponseFiles(@TempDir Path dir) throws IOException {
+		var file = Files.writeString(dir.resolve("args"), "-c # callback\n\"a file\"\n");
+		help.addOptions(new HelpOptionBuilder().addInvokes("-n").setParameterType(Integer.class).build());
+
+		assertEquals("@" + file, help.parse("@" + file).getTargetValue(0));
+
+		help.allowResponseFiles(true);
+		ParseResult result = help.parse("-n", "1", "@" + file);
+		assertEquals(2, result.numberOfOptions());
+		assertEquals(option, result.getOption(1));
+		assertEquals("a file", result.getTargetValue(0));
+
+		assertEquals("@x", help.parse("@@x").getTargetValue(0));
+
+		// an option at the end of a file takes the next input as parameter, and vice versa
+		var optionFile = Files.writeString(dir.resolve("option"), "-n");
+		assertEquals(2, help.parse("@" + optionFile, "2").getParsedValue(0));
+		assertEquals(3, help.parse("-n", "@" + Files.writeString(dir.resolve("value"), "3")).getParsedValue(0));
+		assertThrows(IllegalArgumentException.class, () -> help.parse("@" + optionFile));
+
+		// the arguments of a subcommand are expanded once, by the enclosing parse
+		help.addCommand("copy", null, () -> new JavaHelp()
+				.allowResponseFiles(true)
+				.setUsage(new HelpUsage().addTargets("source")));
+		assertEquals("@literal", help.parse("copy", "@@literal").getCommandResult().getTargetValue(0));
+		assertEquals("@" + file, help.parse("--", "@" + file).getTargetValue(0));
+		assertThrows(IllegalArgumentException.class, () -> help.parse("@" + dir.resolve("missing")));
+
+		// only a "--" ending the options stops the expansion, also if read from a file
+		help.addOptions(new HelpOptionBuilder().addInvokes("--sep").addParameters("--", ",").build());
+		assertEquals("a file", help.parse("--sep", "--", "@" + file).getTargetValue(0));
+		var endFile = Files.writeString(dir.resolve("end"), "--");
+		assertEquals("@" + file, help.parse("@" + endFile, "@" + file).getTargetValue(0));
+	}
+
+	@Test
+	void parseCombinedOptions() {
+		HelpOption verbose = new HelpOptionBuilder().addInvokes("-v", "--verbose").build();
+		HelpOption count = new HelpOptionBuilder().addInvokes("-n", "--count").setParameterType(Integer.class).build();
+		help.addOptions(verbose, count);
+
+		assertEquals("-cv", help.parse("-cv").getTargetValue(0));
+		help.allowCombinedOptions(true);
+
+		ParseResult result = help.parse("-cvn5", "--count=7", "-vn", "3", "-12");
+		assertEquals(6, result.numberOfOptions());
+		assertEquals(option, result.getOption(0));
+		assertEquals(verbose, result.getOption(1));
+		assertEquals(5, result.getParsedValue(2));
+		assertEquals(7, result.getParsedValue(3));
+		assertEquals(3, result.getParsedValue(5));
+		assertEquals("-12", result.getTargetValue(0));
+
+		assertThrows(IllegalArgumentException.class, () -> help.parse("--count="));
+		assertThrows(IllegalArgumentException.class, () -> help.parse("--verbose=yes"));
+		assertThrows(IllegalArgumentException.class, () -> help.parse("-vn"));
+		assertThrows(IllegalArgumentException.class, () -> help.parse("-nx"));
+		assertEquals(2, help.allowAbbreviations(true).parse("--cou=1", "-c").numberOfOptions());
+	}
+
+	@Test
+	void parseAll() {
+		List<ParseOutcome> outcomes = help.parseAll(List.of(
+				new String[]{"-c", "file"},
+				new String[]{"file", "other"},
+				new String[]{"file", "--cal"}));
+
+		assertTrue(outcomes.get(0).isSuccess());
+		assertEquals("Unexpected argument: other", outcomes.get(1).getError());
+		assertTrue(outcomes.get(2).getError().startsWith("Unknown option: --cal"));
+		assertEquals(1, help.parseAll(Stream.<String[]>of(new String[]{"-c"})).filter(ParseOutcome::isSuccess).count());
+	}
+
+	@Test
+	void compileCached() {
+		CompiledHelp first = help.compile();
+		assertSame(first, help.compile());
+
+		help.allowAbbreviations(true);
+		CompiledHelp second = help.compile();
+		assertNotSame(first, second);
+		assertEquals(1, help.parseAll(List.<String[]>of(new String[]{"--cal"})).size());
+		assertSame(second, help.compile());
+
+		usage.addTargets("other");
+		assertNotSame(second, help.compile());
+		assertEquals(2, help.compile().parse("a", "b").numberOfTargets());
+	}
+
+	@Test
+	void toStringCached() {
+		String first = help.toString();
+		assertSame(first, help.toString());
+
+		help.setOptionIndent(2).sortOptions(false);
+		assertSame(first, help.toString());
+
+		help.setOptionIndent(4);
+		assertNotSame(first, help.toString());
+		assertTrue(help.toString().endsWith("\n    -c, --callback      description"));
+
+		usage.setProgramName("Test");
+		assertTrue(help.toString().startsWith("USAGE:\n Test [options] <empty>"));
+	}
+
+	@Test
+	void toStringIncremental() {
+		List<HelpOption> all = new ArrayList<>(List.of(option));
+		help.sortOptions(true).toString();
+
+		for (var name : new String[]{"zeta", "alpha", "alpha2", "mid"}) {
+			HelpOption added = new HelpOptionBuilder().addInvokes("--" + name).setDescription(name).build();
+			help.addOptions(added);
+			all.add(added);
+
+			JavaHelp fresh = new JavaHelp().setUsage(usage).addOptions(all.toArray(HelpOption[]::new)).sortOptions(true);
+			assertEquals(fresh.toString(), help.toString());
+		}
+		String sorted = help.toString();
+		assertTrue(sorted.indexOf("--alpha") < sorted.indexOf("--mid"));
+
+		JavaHelp fresh = new JavaHelp().setUsage(usage).addOptions(all.toArray(HelpOption[]::new)).setOptionIndent(4);
+		assertEquals(fresh.sortOptions(true).toString(), help.setOptionIndent(4).toString());
+		assertEquals(fresh.sortOptions(false).toString(), help.sortOptions(false).toString());
+		assertTrue(help.toString().indexOf("--zeta") < help.toString().indexOf("--alpha"));
+	}
+
+	@Test
+	void toStringParallel() {
+		HelpOption[] many = new HelpOption[JavaHelp.DEFAULT_PARALLEL_THRESHOLD * 4];
+		for (var i = 0; i < many.length; i++) {
+			many[i] = new HelpOptionBuilder()
+					.addInvokes("--option-" + (many.length - i))
+					.setDescription("description of option " + i + " that is long enough to be wrapped")
+					.build();
+		}
+
+		JavaHelp sequential = new JavaHelp().setUsage(usage).addOptions(many).setParagraphLimit(40);
+		JavaHelp parallel = new JavaHelp().setUsage(usage).addOptions(many).setParagraphLimit(40).renderInParallel(true);
+		assertEquals(sequential.toString(), parallel.toString());
+		assertEquals(sequential.sortOptions(true).toString(), parallel.sortOptions(true).toString());
+
+		// below the default threshold, only rendered in parallel with a lower one
+		HelpOption[] few = Arrays.copyOf(many, 16);
+		sequential = new JavaHelp().setUsage(usage).addOptions(few).setParagraphLimit(40);
+		parallel = new JavaHelp().setUsage(usage).addOptions(few).setParagraphLimit(40)
+				.renderInParallel(true)
+				.setParallelThreshold(0);
+		assertEquals(sequential.toString(), parallel.toString());
+	}
+
+	@Test
+	void renderTo() throws IOException {
+		var sb = new StringBuilder();
+		help.renderTo(sb);
+		assertEquals(help.toString(), sb.toString());
+
+		help.addOptions(new HelpOptionBuilder().addInvokes("-b").setDescription("streamed").build());
+		sb.setLength(0);
+		help.renderTo(sb);
+		assertEquals(help.toString(), sb.toString());
+
+		help.sortOptions(true).addOptions(new HelpOptionBuilder().addInvokes("-a").build());
+		sb.setLength(0);
+		help.renderTo(sb);
+		assertEquals(help.toString(), sb.toString());
+	}
+
 	@Test
 	void testToString() {
 		assertEquals("USAGE:\n" +
@@ -0,0 +1,40 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonRendererTest {
+
+	private final JavaHelp help = Fixtures.admin(() -> fail("command built"));
+
+	@Test
+	void render() throws IOException {
+		assertEquals("{\"program\":\"admin\",\"targets\":[\"user\"]," +
+		             "\"options\":[{\"invokes\":[\"-m\",\"--mode\"],\"values\":[\"read\",\"write\"],\"description\":\"access mode\"}," +
+		             "{\"invokes\":[\"-o\",\"--output\"],\"type\":\"Path\",\"description\":\"output file: 'log'\"}," +
+		             "{\"invokes\":[\"-n\"],\"type\":\"Integer\"}," +
+		             "{\"invokes\":[\"-v\",\"-verbose\"],\"description\":\"verbose [all]\"}]," +
+		             "\"commands\":[{\"name\":\"migrate\",\"description\":\"runs the \\\"migrations\\\"\"}]}", render(help));
+	}
+
+	@Test
+	void renderEscaped() throws IOException {
+		var help = new JavaHelp().setUsage(null).addOptions(new HelpOptionBuilder()
+				.addInvokes("-x")
+				.setDescription("\"a\"\tb\n\\\u0001")
+				.build());
+
+		assertEquals("{\"program\":null,\"targets\":[]," +
+		             "\"options\":[{\"invokes\":[\"-x\"],\"description\":\"\\\"a\\\"\\tb\\n\\\\\\u0001\"}]," +
+		             "\"commands\":[]}", render(help));
+	}
+
+	private String render(JavaHelp help) throws IOException {
+		var sb = new StringBuilder();
+		help.renderTo(new JsonRenderer(), sb);
+		return sb.toString();
+	}
+}
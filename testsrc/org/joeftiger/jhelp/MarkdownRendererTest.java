@@ -0,0 +1,57 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownRendererTest {
+
+	private final JavaHelp help = Fixtures.admin(() -> fail("command built"));
+
+	@Test
+	void render() throws IOException {
+		assertEquals("# admin\n" +
+		             "\n" +
+		             "```\n" +
+		             "admin [options] <user>\n" +
+		             "```\n" +
+		             "\n" +
+		             "## Options\n" +
+		             "\n" +
+		             "- `-m`, `--mode` `{read,write}`: access mode\n" +
+		             "- `-o`, `--output` `{Path}`: output file: 'log'\n" +
+		             "- `-n` `{Integer}`\n" +
+		             "- `-v`, `-verbose`: verbose \\[all\\]\n" +
+		             "\n" +
+		             "## Commands\n" +
+		             "\n" +
+		             "- `migrate`: runs the \"migrations\"\n", render(help));
+	}
+
+	@Test
+	void renderEscaped() throws IOException {
+		var help = new JavaHelp().setUsage(null).addOptions(
+				new HelpOptionBuilder()
+						.addInvokes("-`x")
+						.setDescription("*bold*\n  <b>")
+						.build(),
+				new HelpOptionBuilder()
+						.addInvokes("-q")
+						.addParameters("a`b", "c``d")
+						.build());
+
+		assertEquals("\n" +
+		             "## Options\n" +
+		             "\n" +
+		             "- `` -`x ``: \\*bold\\* \\<b\\>\n" +
+		             "- `-q` ``` {a`b,c``d} ```\n", render(help));
+	}
+
+	private String render(JavaHelp help) throws IOException {
+		var sb = new StringBuilder();
+		help.renderTo(new MarkdownRenderer(), sb);
+		return sb.toString();
+	}
+}
@@ -0,0 +1,41 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParameterSetTest {
+
+	@Test
+	void indexOf() {
+		var values = new String[1000];
+		for (var i = 0; i < values.length; i++) {
+			values[i] = "value" + i;
+		}
+		var set = new ParameterSet(values, false);
+
+		for (var i = 0; i < values.length; i++) {
+			assertEquals(i, set.indexOf("value" + i));
+		}
+		assertEquals(-1, set.indexOf("VALUE1"));
+		assertEquals(-1, set.indexOf("value1000"));
+		assertEquals(-1, set.indexOf(null));
+	}
+
+	@Test
+	void indexOfIgnoreCase() {
+		var set = new ParameterSet(new String[]{"de-CH", "fr-ch", "DE-ch", "Straße"}, true);
+
+		assertEquals(0, set.indexOf("DE-CH"));
+		assertEquals(1, set.indexOf("FR-CH"));
+		assertEquals(-1, set.indexOf("STRASSE"));
+		assertEquals(3, set.indexOf("straße"));
+		assertTrue(set.isIgnoreCase());
+	}
+
+	@Test
+	void empty() {
+		var set = new ParameterSet(new String[0], false);
+		assertEquals(-1, set.indexOf(""));
+	}
+}
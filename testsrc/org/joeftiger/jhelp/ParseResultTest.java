@@ -0,0 +1,168 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseResultTest {
+
+	private final List<String> calls = new ArrayList<>();
+	private final HelpOption verbose = new HelpOptionBuilder()
+			.addInvokes("-v")
+			.setCallback(s -> calls.add("verbose"))
+			.build();
+	private final HelpOption method = new HelpOptionBuilder()
+			.addInvokes("-m")
+			.addParameters("rank", "random")
+			.setCallback(s -> calls.add("method " + s))
+			.build();
+	private final HelpOption silent = new HelpOptionBuilder()
+			.addInvokes("-s")
+			.build();
+	private ParseResult result;
+
+	@BeforeEach
+	void setUp() {
+		JavaHelp help = new JavaHelp()
+				.setUsage(new HelpUsage()
+						.addTargets(new HelpTarget("input", s -> calls.add("input " + s)))
+						.addTargets("output"))
+				.addOptions(verbose, method, silent);
+		result = help.parse("-m", "rank", "in.txt", "-v", "out.txt", "-m", "random");
+		calls.clear();
+	}
+
+	@Test
+	void hasOption() {
+		assertTrue(result.hasOption(verbose));
+		assertTrue(result.hasOption(method));
+		assertFalse(result.hasOption(silent));
+	}
+
+	@Test
+	void getValue() {
+		assertEquals("random", result.getValue(method));
+		assertNull(result.getValue(verbose));
+		assertThrows(NoSuchElementException.class, () -> result.getValue(silent));
+	}
+
+	@Test
+	void getTarget() {
+		assertEquals(2, result.numberOfTargets());
+		assertEquals("in.txt", result.getTargetValue(0));
+		assertEquals("<output>", result.getTarget(1).toString());
+		assertThrows(IndexOutOfBoundsException.class, () -> result.getTarget(2));
+	}
+
+	@Test
+	void getParsedValue() {
+		var total = new int[1];
+		HelpOption count = new HelpOptionBuilder()
+				.addInvokes("-n")
+				.setIntCallback(i -> total[0] += i)
+				.build();
+		ParseResult typed = new JavaHelp().addOptions(count).parse("-n", "4", "-n", "+5");
+
+		assertEquals(4, typed.getParsedValue(0));
+		assertEquals("+5", typed.getOptionValue(1));
+		typed.dispatch();
+		assertEquals(9, total[0]);
+
+		HelpOption output = new HelpOptionBuilder()
+				.addInvokes("-o")
+				.setParameterType(Path.class)
+				.setCallback(s -> {})
+				.build();
+		ParseResult converted = new JavaHelp().addOptions(output).parse("-o", "a/b");
+		assertEquals(Path.of("a", "b"), converted.getParsedValue(0));
+		assertSame(converted.getParsedValue(0), converted.getParsedValue(0));
+	}
+
+	@Test
+	void dispatch() {
+		result.dispatch();
+		assertEquals(List.of("method rank", "verbose", "method random", "input in.txt"), calls);
+	}
+
+	@Test
+	void dispatchAsyncOrder() throws Exception {
+		List<String> log = Collections.synchronizedList(new ArrayList<>());
+		HelpOption config = new HelpOptionBuilder()
+				.addInvokes("--config")
+				.setParameterType(String.class)
+				.setCallback(s -> log.add("config " + s))
+				.build();
+		HelpOption open = new HelpOptionBuilder()
+				.addInvokes("--open")
+				.setParameterType(String.class)
+				.setCallback(s -> log.add("open " + s))
+				.addDependencies(config)
+				.build();
+		ParseResult result = new JavaHelp()
+				.setUsage(new HelpUsage().addTargets(new HelpTarget("file", s -> log.add("file " + s))))
+				.addOptions(config, open)
+				.parse("--open", "a", "--open", "b", "--config", "c", "f");
+
+		var executor = Executors.newFixedThreadPool(4);
+		try {
+			result.dispatchAsync(executor).get(5, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(List.of("config c", "open a", "open b", "file f"), log);
+	}
+
+	@Test
+	void dispatchAsyncConcurrent() throws Exception {
+		// both callbacks only finish if they run at the same time
+		var latch = new CountDownLatch(2);
+		Runnable await = () -> {
+			latch.countDown();
+			try {
+				assertTrue(latch.await(5, TimeUnit.SECONDS));
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		};
+		HelpOption a = new HelpOptionBuilder().addInvokes("-a").setCallback(s -> await.run()).build();
+		HelpOption b = new HelpOptionBuilder().addInvokes("-b").setCallback(s -> await.run()).build();
+
+		new JavaHelp().addOptions(a, b).parse("-a", "-b").dispatchAsync().get(10, TimeUnit.SECONDS);
+		assertEquals(0, latch.getCount());
+	}
+
+	@Test
+	void dispatchAsyncErrors() {
+		HelpOption first = new HelpOptionBuilder()
+				.addInvokes("-x")
+				.setCallback(s -> { throw new IllegalArgumentException("x"); })
+				.build();
+		HelpOption second = new HelpOptionBuilder()
+				.addInvokes("-y")
+				.setCallback(s -> { throw new IllegalArgumentException("y"); })
+				.build();
+		HelpOption dependent = new HelpOptionBuilder()
+				.addInvokes("-z")
+				.setCallback(s -> calls.add("z"))
+				.addDependencies(first)
+				.build();
+
+		var future = new JavaHelp().addOptions(first, second, dependent).parse("-z", "-x", "-y").dispatchAsync(Runnable::run);
+		var e = assertThrows(ExecutionException.class, future::get);
+
+		assertInstanceOf(IllegalArgumentException.class, e.getCause());
+		assertEquals(1, e.getCause().getSuppressed().length);
+		assertTrue(calls.isEmpty());
+	}
+}
@@ -2,10 +2,79 @@ package org.joeftiger.jhelp;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class StringUtilTest {
 
+	private static final String[] NUMBER_SAMPLES = {
+			null, "", " ", "+", "-", "0", "-0", "+0", "00", "1_000", " 1", "1 ",
+			"127", "128", "-128", "-129", "32767", "32768", "-32768", "-32769",
+			"2147483647", "2147483648", "-2147483648", "-2147483649",
+			"9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+			"99999999999999999999", "\u0661\u0662", "-\u0663", "\uff11",
+			"1.", ".1", ".", "-.", "1..2", "1e", "1e+", "1e-5", "1E5f", "1e5x", "1.5dd", "1d", "1F", "f",
+			"NaN", "-NaN", "NaNf", "nan", "Infinity", "-Infinity", "+Infinityd", "Inf",
+			"0x", "0x1", "0x1p", "0x1p1", "0x.p1", "0x.8p-1", "0X1.P+2F", "-0x1fp3d", "0xgp1", " \t0x1p1 \n",
+			"\u00001.5\u0000", "1.7976931348623157E308", "4.9E-324", "1e999999999999"
+	};
+
+	/**
+	 * Asserts that the given validator agrees with the JDK parser on the given input.
+	 */
+	private static void assertSameAsParser(Predicate<String> validator, Consumer<String> parser, String s) {
+		boolean parses;
+		try {
+			parser.accept(s);
+			parses = true;
+		} catch (NumberFormatException | NullPointerException e) {
+			parses = false;
+		}
+		assertEquals(parses, validator.test(s), () -> "Mismatch for \"" + s + "\"");
+	}
+
+	private static void assertAllSameAsParsers(String s) {
+		assertSameAsParser(StringUtil::isByte, Byte::parseByte, s);
+		assertSameAsParser(StringUtil::isShort, Short::parseShort, s);
+		assertSameAsParser(StringUtil::isInteger, Integer::parseInt, s);
+		assertSameAsParser(StringUtil::isLong, Long::parseLong, s);
+		assertSameAsParser(StringUtil::isFloat, Float::parseFloat, s);
+		assertSameAsParser(StringUtil::isDouble, Double::parseDouble, s);
+	}
+
+	@Test
+	void numberSamplesMatchParsers() {
+		for (var s : NUMBER_SAMPLES) {
+			assertAllSameAsParsers(s);
+		}
+	}
+
+	/**
+	 * A few seeded iterations; longer runs with any seed are done by {@code NumberSoak} of the benchmarks module.
+	 */
+	@Test
+	void randomNumbersMatchParsers() {
+		final String alphabet = "0123456789+-.eEpPxXfFdDaAbBNIntiy \t\u0661";
+		var random = new Random(42);
+
+		for (var n = 0; n < 5_000; n++) {
+			var chars = new char[random.nextInt(12)];
+			for (var i = 0; i < chars.length; i++) {
+				chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+			}
+			assertAllSameAsParsers(new String(chars));
+		}
+
+		for (var n = 0; n < 2_000; n++) {
+			assertAllSameAsParsers(String.valueOf(random.nextLong() >> random.nextInt(64)));
+			assertAllSameAsParsers(String.valueOf(Double.longBitsToDouble(random.nextLong())));
+		}
+	}
+
 	@Test
 	void splitPreservingWords() {
 		String[] out = StringUtil.splitPreservingWords("There two types of people in the world. Those who can extrapolate from incomplete data", 10);
@@ -24,6 +93,27 @@ class StringUtilTest {
 		assertArrayEquals(expected, out);
 	}
 
+	@Test
+	void splitPreservingWordsLongWordsAndWhitespace() {
+		assertArrayEquals(new String[]{"extrapolate", "from", "incomplete"},
+				StringUtil.splitPreservingWords("  extrapolate from\tincomplete  ", 5));
+		assertArrayEquals(new String[]{"a b c", "d"}, StringUtil.splitPreservingWords("a  b\n c d", 5));
+		assertArrayEquals(new String[]{""}, StringUtil.splitPreservingWords(" \t ", 5));
+	}
+
+	@Test
+	void wrapPreservingWords() {
+		assertArrayEquals(new int[]{0, 9, 10, 18}, StringUtil.wrapPreservingWords("There two types of", 10));
+		assertArrayEquals(new int[]{0, 0}, StringUtil.wrapPreservingWords("", 10));
+	}
+
+	@Test
+	void appendPreservingWords() throws IOException {
+		var sb = new StringBuilder();
+		StringUtil.appendPreservingWords(sb, "There  two types of people", 10, 2);
+		assertEquals("There two\n  types of\n  people", sb.toString());
+	}
+
 	@Test
 	void isByte() {
 		assertFalse(StringUtil.isByte("false"));
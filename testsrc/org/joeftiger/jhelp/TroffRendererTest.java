@@ -0,0 +1,58 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TroffRendererTest {
+
+	private final JavaHelp help = Fixtures.admin(() -> fail("command built"));
+
+	@Test
+	void render() throws IOException {
+		assertEquals(".TH \"ADMIN\" 1\n" +
+		             ".SH NAME\n" +
+		             "admin\n" +
+		             ".SH SYNOPSIS\n" +
+		             ".B admin\n" +
+		             "[\\fIoptions\\fR] \\fIuser\\fR\n" +
+		             ".SH OPTIONS\n" +
+		             ".TP\n" +
+		             "\\fB\\-m\\fR, \\fB\\-\\-mode\\fR \\fI{read,write}\\fR\n" +
+		             "access mode\n" +
+		             ".TP\n" +
+		             "\\fB\\-o\\fR, \\fB\\-\\-output\\fR \\fI{Path}\\fR\n" +
+		             "output file: 'log'\n" +
+		             ".TP\n" +
+		             "\\fB\\-n\\fR \\fI{Integer}\\fR\n" +
+		             ".TP\n" +
+		             "\\fB\\-v\\fR, \\fB\\-verbose\\fR\n" +
+		             "verbose [all]\n" +
+		             ".SH COMMANDS\n" +
+		             ".TP\n" +
+		             "\\fBmigrate\\fR\n" +
+		             "runs the \"migrations\"\n", render(help));
+	}
+
+	@Test
+	void renderEscaped() throws IOException {
+		var help = new JavaHelp().addOptions(new HelpOptionBuilder()
+				.addInvokes("-x")
+				.setDescription("  .starts with a dot\n and a \\ backslash")
+				.build());
+
+		assertEquals(".TH \"\" 1\n" +
+		             ".SH OPTIONS\n" +
+		             ".TP\n" +
+		             "\\fB\\-x\\fR\n" +
+		             "\\&.starts with a dot and a \\e backslash\n", render(help.setUsage(null)));
+	}
+
+	private String render(JavaHelp help) throws IOException {
+		var sb = new StringBuilder();
+		help.renderTo(new TroffRenderer(), sb);
+		return sb.toString();
+	}
+}
@@ -0,0 +1,95 @@
+package org.joeftiger.jhelp;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeRegistryTest {
+
+	private static final class Port {
+		private final int number;
+
+		private Port(int number) {
+			this.number = number;
+		}
+	}
+
+	@Test
+	void defaults() {
+		var registry = TypeRegistry.getDefault();
+
+		assertSame(registry.get(Integer.class), registry.get(int.class));
+		assertTrue(registry.get(Duration.class).matches("PT5M"));
+		assertFalse(registry.get(Duration.class).matches("5 minutes"));
+		assertTrue(registry.get(Duration.class).matches("P-2Dt"));
+		assertTrue(registry.get(UUID.class).matches("123e4567-e89b-12d3-a456-426614174000"));
+		assertFalse(registry.get(UUID.class).matches("1-2-3-4-5"));
+		assertEquals(Path.of("a", "b"), registry.get(Path.class).convert("a/b"));
+		assertNull(registry.get(Port.class));
+	}
+
+	@Test
+	void strictBoolean() {
+		var type = TypeRegistry.getDefault().get(boolean.class);
+
+		assertTrue(type.matches("true"));
+		assertTrue(type.matches("FALSE"));
+		assertEquals(Boolean.TRUE, type.convert("True"));
+		for (var input : new String[]{"yes", "no", "1", "0", "", "t", "false "}) {
+			assertFalse(type.matches(input), input);
+		}
+
+		HelpOption option = new HelpOptionBuilder().addInvokes("--color").setParameterType(Boolean.class).build();
+		assertThrows(IllegalArgumentException.class, () -> new JavaHelp().addOptions(option).parse("--color", "yes"));
+	}
+
+	@Test
+	void getBySimpleName() {
+		var registry = new TypeRegistry();
+		assertSame(TypeRegistry.getDefault().get(Integer.class), registry.get("Integer"));
+		assertSame(TypeRegistry.getDefault().get(int.class), registry.get("int"));
+		assertNull(registry.get("Port"));
+
+		var first = ParameterType.of(java.util.Date.class, s -> true, s -> new java.util.Date());
+		var second = ParameterType.of(java.sql.Date.class, s -> false, s -> new java.sql.Date(0));
+		registry.register(java.util.Date.class, first).register(java.sql.Date.class, second);
+		assertSame(second, registry.get("Date"));
+		assertSame(first, registry.get(java.util.Date.class));
+	}
+
+	@Test
+	void register() {
+		var registry = new TypeRegistry()
+				.register(Port.class, ParameterType.of(Port.class,
+						s -> StringUtil.isInteger(s) && Integer.parseInt(s) >= 0 && Integer.parseInt(s) < 65536,
+						s -> new Port(Integer.parseInt(s))));
+
+		assertNull(TypeRegistry.getDefault().get(Port.class));
+		assertNotNull(registry.get(Integer.class));
+
+		var port = new int[1];
+		HelpOption option = new HelpOptionBuilder()
+				.setTypeRegistry(registry)
+				.setCallback(Port.class, p -> port[0] = p.number)
+				.build();
+		assertTrue(option.matchesParameter("8080"));
+		assertFalse(option.matchesParameter("65536"));
+		assertFalse(option.matchesParameter(null));
+
+		option.applyToCallback("8080");
+		assertEquals(8080, port[0]);
+		assertThrows(IllegalArgumentException.class, () -> option.parseValue("-1"));
+	}
+
+	@Test
+	void convertingValidator() {
+		var type = ParameterType.of(Duration.class, Duration::parse);
+		assertEquals(Duration.class, type.getType());
+		assertFalse(type.matches("soon"));
+		assertEquals(Duration.ofMinutes(5), type.convert("PT5M"));
+	}
+}
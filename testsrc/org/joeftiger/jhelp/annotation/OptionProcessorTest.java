@@ -0,0 +1,140 @@
+package org.joeftiger.jhelp.annotation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptionProcessorTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void bindClass() throws Exception {
+		var loader = compile("demo/Settings.java", """
+				package demo;
+
+				import org.joeftiger.jhelp.annotation.*;
+
+				@Command(name = "demo")
+				public class Settings {
+					@Option(value = {"-v", "--verbose"}, description = "verbose output")
+					public boolean verbose;
+					@Option(value = {"-n", "--count"}, description = "number of runs")
+					public int count = 1;
+					@Option("--mode")
+					public java.util.concurrent.TimeUnit mode;
+					@Target("file")
+					public String input;
+				}
+				""");
+
+		var type = loader.loadClass("demo.Settings");
+		var help = loader.loadClass("demo.SettingsHelp");
+		var settings = type.getConstructor().newInstance();
+
+		help.getMethod("bind", type, String[].class)
+				.invoke(null, settings, new String[]{"-v", "--count", "3", "--mode", "SECONDS", "in.txt"});
+
+		assertEquals(true, type.getField("verbose").get(settings));
+		assertEquals(3, type.getField("count").get(settings));
+		assertEquals("SECONDS", type.getField("mode").get(settings).toString());
+		assertEquals("in.txt", type.getField("input").get(settings));
+
+		var rendered = help.getMethod("help").invoke(null).toString();
+		assertTrue(rendered.startsWith("USAGE:\n demo [options] <file>"), rendered);
+		assertTrue(rendered.contains("-n, --count"), rendered);
+		assertTrue(rendered.contains("number of runs"), rendered);
+	}
+
+	@Test
+	void parseRecord() throws Exception {
+		var loader = compile("demo/Copy.java", """
+				package demo;
+
+				import org.joeftiger.jhelp.annotation.*;
+
+				public record Copy(@Option("--force") boolean force,
+				                   @Option("--buffer") long buffer,
+				                   @Target String source,
+				                   @Target String destination) {
+				}
+				""");
+
+		var help = loader.loadClass("demo.CopyHelp");
+		var copy = help.getMethod("parse", String[].class)
+				.invoke(null, (Object) new String[]{"--buffer", "4096", "a", "b"});
+
+		assertEquals("Copy[force=false, buffer=4096, source=a, destination=b]", copy.toString());
+	}
+
+	@Test
+	void rejectPrivateField() throws Exception {
+		var source = dir.resolve("src/demo/Hidden.java");
+		Files.createDirectories(source.getParent());
+		Files.writeString(source, """
+				package demo;
+
+				public class Hidden {
+					@org.joeftiger.jhelp.annotation.Option("-x")
+					private boolean x;
+				}
+				""");
+
+		var diagnostics = new DiagnosticCollector<JavaFileObject>();
+		assertFalse(run(source, diagnostics));
+		assertTrue(diagnostics.getDiagnostics().stream()
+				.anyMatch(d -> d.getMessage(null).contains("must not be private")));
+	}
+
+	@Test
+	void rejectUnregisteredType() throws Exception {
+		var source = dir.resolve("src/demo/Remote.java");
+		Files.createDirectories(source.getParent());
+		Files.writeString(source, """
+				package demo;
+
+				public class Remote {
+					@org.joeftiger.jhelp.annotation.Option("--host")
+					public java.net.InetAddress host;
+				}
+				""");
+
+		var diagnostics = new DiagnosticCollector<JavaFileObject>();
+		assertFalse(run(source, diagnostics));
+		assertTrue(diagnostics.getDiagnostics().stream()
+				.anyMatch(d -> d.getMessage(null).contains("registered in the default TypeRegistry: java.net.InetAddress")));
+	}
+
+	private ClassLoader compile(String name, String code) throws Exception {
+		var source = dir.resolve("src").resolve(name);
+		Files.createDirectories(source.getParent());
+		Files.writeString(source, code);
+
+		var diagnostics = new DiagnosticCollector<JavaFileObject>();
+		assertTrue(run(source, diagnostics), () -> diagnostics.getDiagnostics().toString());
+		return new URLClassLoader(new URL[]{dir.resolve("out").toUri().toURL()}, getClass().getClassLoader());
+	}
+
+	private boolean run(Path source, DiagnosticCollector<JavaFileObject> diagnostics) throws Exception {
+		var out = Files.createDirectories(dir.resolve("out"));
+		var compiler = ToolProvider.getSystemJavaCompiler();
+		try (var files = compiler.getStandardFileManager(diagnostics, null, null)) {
+			var task = compiler.getTask(null, files, diagnostics,
+					List.of("-d", out.toString(), "-classpath", System.getProperty("java.class.path"), "-implicit:class"),
+					null, files.getJavaFileObjects(source.toFile()));
+			task.setProcessors(List.of(new OptionProcessor()));
+			return task.call();
+		}
+	}
+}